@@ -0,0 +1,236 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.rules.util.DaemonThreadFactory;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.MultipleFailureException;
+import org.junit.runners.model.Statement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Runs the {@link TestFixture#tearDown()} of fixtures that opted in through
+ * {@link TestFixture#setTearDownInBackground(boolean)} on a small, bounded pool of daemon threads, so that the next test
+ * doesn't have to wait for things like server or database shutdown.
+ * </p>
+ * <p>
+ * Failures are collected and rethrown, once, by whichever comes first: the next time the same fixture is applied
+ * (before its setUp), or {@link #await()}. A failure is never reported against a test that doesn't use the fixture.
+ * Declare the rule returned by {@link #barrier()} as a {@link org.junit.ClassRule} to surface them at the end of a
+ * test class (or suite). Any failures still unreported when the JVM exits are logged.
+ * </p>
+ *
+ * <pre>
+ * &#064;ClassRule
+ * public static final TestRule TEAR_DOWN_BARRIER = BackgroundTearDown.barrier();
+ * </pre>
+ *
+ * <p>
+ * The number of threads is set by the system property {@value #THREADS_PROPERTY} (default
+ * {@value #DEFAULT_THREADS}).
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+public final class BackgroundTearDown {
+
+    /**
+     * {@value #THREADS_PROPERTY}
+     */
+    public static final String THREADS_PROPERTY = "junit.rules.teardown.threads";
+
+    /**
+     * {@value #DEFAULT_THREADS}
+     */
+    public static final int DEFAULT_THREADS = 2;
+
+    private static final Logger logger = LoggerFactory.getLogger(BackgroundTearDown.class);
+
+    private static final ExecutorService EXECUTOR;
+
+    private static final List<Future<?>> PENDING = new ArrayList<Future<?>>();
+
+    private static final Map<TestFixture, List<Throwable>> FAILURES = new LinkedHashMap<TestFixture, List<Throwable>>();
+
+    static {
+        final int threads = Math.max(1, Integer.getInteger(THREADS_PROPERTY, DEFAULT_THREADS).intValue());
+        EXECUTOR = Executors.newFixedThreadPool(threads, new DaemonThreadFactory("BackgroundTearDown"));
+        Runtime.getRuntime().addShutdownHook(new Thread("BackgroundTearDown barrier") {
+            @Override
+            public void run() {
+                try {
+                    await();
+                } catch (final Throwable t) {
+                    logger.error("Unreported background tearDown failure(s)", t);
+                }
+            }
+        });
+    }
+
+    /**
+     * Utility classes should not have a public or default constructor.
+     */
+    private BackgroundTearDown() {
+        // noop
+    }
+
+    /**
+     * @param fixture
+     *        the {@link TestFixture} to tear down
+     * @param description
+     *        the {@link Description} the fixture was applied to
+     * @return the {@link Future} of the teardown
+     */
+    static Future<?> submit(final TestFixture fixture, final Description description) {
+        final Future<?> future = EXECUTOR.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                final long tearDownStart = System.nanoTime();
+                try {
+                    fixture.invokeTearDown();
+                } catch (final Throwable t) {
+                    logger.warn("Background tearDown of " + description + " failed", t);
+                    synchronized (PENDING) {
+                        List<Throwable> failures = FAILURES.get(fixture);
+                        if (failures == null) {
+                            failures = new ArrayList<Throwable>();
+                            FAILURES.put(fixture, failures);
+                        }
+                        failures.add(t);
+                    }
+                } finally {
+                    FixtureTimings.publish(fixture, description, FixturePhase.TEAR_DOWN, tearDownStart);
+                }
+                return null;
+            }
+        });
+        synchronized (PENDING) {
+            for (final Iterator<Future<?>> it = PENDING.iterator(); it.hasNext();) {
+                if (it.next().isDone()) {
+                    it.remove();
+                }
+            }
+            PENDING.add(future);
+        }
+        return future;
+    }
+
+    /**
+     * @return the number of teardowns submitted and not yet known to be done
+     */
+    static int pendingCount() {
+        synchronized (PENDING) {
+            return PENDING.size();
+        }
+    }
+
+    /**
+     * Rethrows the failures of the given fixture's background teardowns that have already completed, without waiting
+     * for the rest.
+     *
+     * @param fixture
+     *        the {@link TestFixture}
+     * @throws Throwable
+     *         the failure(s) of any of its background teardowns not already reported
+     */
+    static void rethrowFailures(final TestFixture fixture) throws Throwable {
+        final List<Throwable> errors;
+        synchronized (PENDING) {
+            errors = FAILURES.remove(fixture);
+        }
+        if (errors != null) {
+            MultipleFailureException.assertEmpty(errors);
+        }
+    }
+
+    /**
+     * Waits for every teardown submitted so far to complete.
+     *
+     * @throws Throwable
+     *         the failure(s) of any background teardown not already reported
+     */
+    public static void await() throws Throwable {
+        final List<Future<?>> futures;
+        synchronized (PENDING) {
+            futures = new ArrayList<Future<?>>(PENDING);
+            PENDING.clear();
+        }
+        for (final Future<?> future : futures) {
+            waitFor(future);
+        }
+        final List<Throwable> errors = new ArrayList<Throwable>();
+        synchronized (PENDING) {
+            for (final List<Throwable> failures : FAILURES.values()) {
+                errors.addAll(failures);
+            }
+            FAILURES.clear();
+        }
+        MultipleFailureException.assertEmpty(errors);
+    }
+
+    /**
+     * @param future
+     *        the teardown {@link Future} to wait for, failures are recorded by the task itself
+     * @throws InterruptedException
+     *         if interrupted while waiting
+     */
+    static void waitFor(final Future<?> future) throws InterruptedException {
+        try {
+            future.get();
+        } catch (final ExecutionException e) {
+            // already recorded in FAILURES
+            logger.trace(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return a rule that, after the class (or suite) it is applied to, waits for all background teardowns and
+     *         reports any failures
+     */
+    public static TestRule barrier() {
+        return new TestRule() {
+            @Override
+            public Statement apply(final Statement base, final Description description) {
+                return new Statement() {
+                    @Override
+                    public void evaluate() throws Throwable {
+                        final List<Throwable> errors = new ArrayList<Throwable>();
+                        try {
+                            base.evaluate();
+                        } catch (final Throwable t) {
+                            errors.add(t);
+                        }
+                        try {
+                            await();
+                        } catch (final Throwable t) {
+                            errors.add(t);
+                        }
+                        MultipleFailureException.assertEmpty(errors);
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marks a test method to be run repeatedly by {@link BenchmarkRule}, and optionally sets the latency percentiles it must
+ * stay within. Percentile thresholds of {@code 0} or less are not checked.
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+@Target({ ElementType.METHOD })
+@Retention(RUNTIME)
+public @interface Benchmark {
+
+    /**
+     * The number of measured iterations
+     */
+    int iterations() default 100;
+
+    /**
+     * The number of iterations to run, and discard, before measuring
+     */
+    int warmUp() default 10;
+
+    /**
+     * The most the median iteration may take
+     */
+    long p50() default 0;
+
+    /**
+     * The most the 90th percentile iteration may take
+     */
+    long p90() default 0;
+
+    /**
+     * The most the 99th percentile iteration may take
+     */
+    long p99() default 0;
+
+    /**
+     * The most the 99.9th percentile iteration may take
+     */
+    long p999() default 0;
+
+    /**
+     * The time unit of the percentile thresholds
+     */
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
+}
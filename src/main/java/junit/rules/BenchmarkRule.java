@@ -0,0 +1,122 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import static junit.framework.Assert.fail;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Runs each {@link Benchmark} test method {@link Benchmark#warmUp()} times, then {@link Benchmark#iterations()} times
+ * more while recording the latency of each iteration in a {@link LatencyHistogram}. The results (p50, p90, p99, p999
+ * and throughput) are logged, and the test fails if any percentile exceeds its threshold. Thresholds are multiplied by
+ * {@value PerformanceBudget#TIME_SCALE_PROPERTY}, like {@link MaxDuration}.
+ * </p>
+ *
+ * <pre>
+ * &#064;Rule
+ * public final BenchmarkRule benchmark = new BenchmarkRule();
+ *
+ * &#064;Test
+ * &#064;Benchmark(iterations = 1000, warmUp = 100, p99 = 5)
+ * public void testFindByName() {
+ * </pre>
+ * <p>
+ * Each iteration re-evaluates whatever this rule wraps. With JUnit 4.9, that includes the {@link org.junit.Before} and
+ * {@link org.junit.After} methods, and may include other rules. Use class-scoped fixtures to keep them out of the
+ * measurement.
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+public class BenchmarkRule implements TestRule {
+
+    private static final Logger logger = LoggerFactory.getLogger(BenchmarkRule.class);
+
+    private static final double P50 = 50;
+
+    private static final double P90 = 90;
+
+    private static final double P99 = 99;
+
+    private static final double P999 = 99.9;
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.junit.rules.TestRule#apply(org.junit.runners.model.Statement, org.junit.runner.Description)
+     */
+    @Override
+    public final Statement apply(final Statement base, final Description description) {
+        final Benchmark benchmark = description.getAnnotation(Benchmark.class);
+        if (benchmark == null) {
+            return base;
+        }
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                histogram.reset();
+                for (int i = 0; i < benchmark.warmUp(); ++i) {
+                    base.evaluate();
+                }
+                for (int i = 0; i < benchmark.iterations(); ++i) {
+                    final long start = System.nanoTime();
+                    base.evaluate();
+                    histogram.record(System.nanoTime() - start);
+                }
+                logger.info(description.getDisplayName() + ": " + histogram);
+                check(description, "p50", P50, benchmark.p50(), benchmark);
+                check(description, "p90", P90, benchmark.p90(), benchmark);
+                check(description, "p99", P99, benchmark.p99(), benchmark);
+                check(description, "p999", P999, benchmark.p999(), benchmark);
+            }
+        };
+    }
+
+    /**
+     * @param description
+     *        the test {@link Description}
+     * @param name
+     *        the percentile name, for messages
+     * @param percentile
+     *        the percentile
+     * @param threshold
+     *        the threshold, in {@link Benchmark#unit()}, not checked if {@code 0} or less
+     * @param benchmark
+     *        the {@link Benchmark}
+     */
+    private void check(final Description description, final String name, final double percentile,
+            final long threshold, final Benchmark benchmark) {
+        if (threshold <= 0) {
+            return;
+        }
+        final double scale = Double.parseDouble(System.getProperty(PerformanceBudget.TIME_SCALE_PROPERTY, "1.0"));
+        final long maxNanos = (long) (benchmark.unit().toNanos(threshold) * scale);
+        final long actual = histogram.getValueAtPercentile(percentile);
+        if (actual > maxNanos) {
+            fail(description.getDisplayName() + " " + name + " was " + actual + " ns, threshold is " + maxNanos
+                    + " ns (" + histogram + ")");
+        }
+    }
+
+    /**
+     * @return the histogram of the last (or current) benchmark
+     */
+    public final LatencyHistogram getHistogram() {
+        return histogram;
+    }
+}
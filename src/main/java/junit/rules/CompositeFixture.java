@@ -0,0 +1,429 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.rules.util.DaemonThreadFactory;
+
+import org.junit.runner.Description;
+import org.junit.runners.model.MultipleFailureException;
+
+/**
+ * <p>
+ * A {@link TestFixture} made up of other fixtures, some of which may depend on others. Fixtures that don't depend on
+ * each other are set up concurrently, and torn down in reverse dependency order, again concurrently where possible.
+ * </p>
+ *
+ * <pre>
+ * private final StubJndiContext jndi = new StubJndiContext();
+ *
+ * private final DerbyDataSourceRule derby = new DerbyDataSourceRule();
+ *
+ * private final DbUnitTestFixtures dbUnit = new DbUnitTestFixtures();
+ *
+ * &#064;Rule
+ * public final CompositeFixture fixtures = new CompositeFixture().add(jndi).add(derby).add(dbUnit, derby);
+ * </pre>
+ *
+ * <p>
+ * A fixture's dependencies must have been added before it, so the fixtures always form an acyclic graph. If any
+ * fixture fails to set up, no further fixtures are started, and those already set up are torn down again.
+ * </p>
+ * <p>
+ * A {@link TestFixture#setLazy(boolean) lazy} fixture is only armed, not set up, along with the others. It is set up
+ * when it (or a fixture that depends on it) first calls {@link TestFixture#activate()}, and is only reset or torn down
+ * if that happened.
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+public class CompositeFixture extends TestFixture {
+
+    private final Map<TestFixture, Set<TestFixture>> dependencies = new LinkedHashMap<TestFixture, Set<TestFixture>>();
+
+    private final ExecutorService providedExecutor;
+
+    private final List<TestFixture> started = new ArrayList<TestFixture>();
+
+    private ExecutorService executor;
+
+    private Description description;
+
+    /**
+     * Outcome of running one fixture's setUp() or tearDown().
+     */
+    private static final class Outcome {
+
+        private final TestFixture fixture;
+
+        private final Throwable failure;
+
+        /**
+         * @param fixture
+         *        the fixture
+         * @param failure
+         *        what it threw, or {@code null}
+         */
+        Outcome(final TestFixture fixture, final Throwable failure) {
+            this.fixture = fixture;
+            this.failure = failure;
+        }
+
+        /**
+         * @return {@code true} if the fixture didn't throw anything
+         */
+        boolean succeeded() {
+            return failure == null;
+        }
+    }
+
+    /**
+     * Runs fixtures on a thread pool with one thread per fixture that isn't lazy, since setting up a fixture mostly
+     * means waiting on I/O or locks rather than using the CPU.
+     */
+    public CompositeFixture() {
+        this(null);
+    }
+
+    /**
+     * @param executor
+     *        the {@link ExecutorService} to run fixtures on. It will not be shut down by this fixture.
+     */
+    public CompositeFixture(final ExecutorService executor) {
+        this.providedExecutor = executor;
+    }
+
+    /**
+     * @param fixture
+     *        the fixture to add
+     * @param dependsOn
+     *        the fixtures that must be set up before, and torn down after, this one. These must have been added
+     *        already.
+     * @return this {@link CompositeFixture}
+     */
+    public final CompositeFixture add(final TestFixture fixture, final TestFixture... dependsOn) {
+        if (dependencies.containsKey(fixture)) {
+            throw new IllegalArgumentException(fixture.getClass().getName() + " has already been added!");
+        }
+        for (final TestFixture dependency : dependsOn) {
+            if (!dependencies.containsKey(dependency)) {
+                throw new IllegalArgumentException(fixture.getClass().getName() + " depends on "
+                        + dependency.getClass().getName() + ", which must be added first!");
+            }
+        }
+        dependencies.put(fixture, new LinkedHashSet<TestFixture>(Arrays.asList(dependsOn)));
+        return this;
+    }
+
+    /**
+     * @return the fixtures, in the order they were added
+     */
+    public final List<TestFixture> getFixtures() {
+        return Collections.unmodifiableList(new ArrayList<TestFixture>(dependencies.keySet()));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see junit.rules.TestFixture#inspect(org.junit.runner.Description)
+     */
+    @Override
+    protected final void inspect(final Description testDescription) {
+        this.description = testDescription;
+        for (final TestFixture fixture : dependencies.keySet()) {
+            final long start = System.nanoTime();
+            fixture.prepare(testDescription);
+            FixtureTimings.publish(fixture, testDescription, FixturePhase.INSPECT, start);
+        }
+    }
+
+    /**
+     * Sets up all fixtures, each as soon as all of its dependencies have been set up.
+     *
+     * @throws Throwable
+     *         if any fixture fails to set up
+     * @see junit.rules.TestFixture#setUp()
+     */
+    @Override
+    protected final void setUp() throws Throwable {
+        started.clear();
+        executor = providedExecutor;
+        if (executor == null) {
+            int eager = 0;
+            for (final TestFixture fixture : dependencies.keySet()) {
+                if (!fixture.isLazy()) {
+                    ++eager;
+                }
+            }
+            executor = Executors.newFixedThreadPool(Math.max(1, eager), new DaemonThreadFactory("CompositeFixture"));
+        }
+        final List<Throwable> errors = runAll(dependencies, true);
+        if (!errors.isEmpty()) {
+            errors.addAll(tearDownStarted());
+            MultipleFailureException.assertEmpty(errors);
+        }
+    }
+
+    /**
+     * Resets each fixture in turn, skipping lazy fixtures that were never activated.
+     *
+     * @throws Throwable
+     *         if any fixture fails to reset
+     * @see junit.rules.TestFixture#reset()
+     */
+    @Override
+    protected final void reset() throws Throwable {
+        final List<Throwable> errors = new ArrayList<Throwable>();
+        for (final TestFixture fixture : started) {
+            if (fixture.isDormant()) {
+                continue;
+            }
+            try {
+                fixture.invokeReset();
+            } catch (final Throwable t) {
+                errors.add(t);
+            }
+        }
+        MultipleFailureException.assertEmpty(errors);
+    }
+
+    /**
+     * Tears down all fixtures, each as soon as all fixtures that depend on it have been torn down.
+     *
+     * @throws Throwable
+     *         if any fixture fails to tear down
+     * @see junit.rules.TestFixture#tearDown()
+     */
+    @Override
+    protected final void tearDown() throws Throwable {
+        MultipleFailureException.assertEmpty(tearDownStarted());
+    }
+
+    /**
+     * @return any errors thrown tearing down the fixtures that were set up
+     * @throws InterruptedException
+     *         if interrupted while waiting for fixtures to tear down
+     */
+    private List<Throwable> tearDownStarted() throws InterruptedException {
+        final Map<TestFixture, Set<TestFixture>> dependents = new LinkedHashMap<TestFixture, Set<TestFixture>>();
+        for (final TestFixture fixture : started) {
+            dependents.put(fixture, new LinkedHashSet<TestFixture>());
+        }
+        for (final TestFixture fixture : started) {
+            for (final TestFixture dependency : dependencies.get(fixture)) {
+                dependents.get(dependency).add(fixture);
+            }
+        }
+        try {
+            return runAll(dependents, false);
+        } finally {
+            started.clear();
+            if (providedExecutor == null) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Runs {@link TestFixture#setUp()} or {@link TestFixture#tearDown()} on every fixture in the graph, each as soon
+     * as all of its prerequisites have completed successfully.
+     *
+     * @param prerequisites
+     *        maps each fixture to the fixtures that must complete before it
+     * @param setUp
+     *        {@code true} to set up, {@code false} to tear down
+     * @return any errors thrown
+     * @throws InterruptedException
+     *         if interrupted while waiting for fixtures to complete
+     */
+    private List<Throwable> runAll(final Map<TestFixture, Set<TestFixture>> prerequisites, final boolean setUp)
+            throws InterruptedException {
+        final CompletionService<Outcome> completionService = new ExecutorCompletionService<Outcome>(executor);
+        final Map<TestFixture, Integer> waitingOn = new HashMap<TestFixture, Integer>();
+        final Map<TestFixture, List<TestFixture>> successors = new HashMap<TestFixture, List<TestFixture>>();
+        for (final Map.Entry<TestFixture, Set<TestFixture>> entry : prerequisites.entrySet()) {
+            // one more than the number of prerequisites, counted down below to submit those with none
+            waitingOn.put(entry.getKey(), entry.getValue().size() + 1);
+            for (final TestFixture prerequisite : entry.getValue()) {
+                successorsOf(successors, prerequisite).add(entry.getKey());
+            }
+        }
+        int inFlight = 0;
+        for (final TestFixture fixture : prerequisites.keySet()) {
+            inFlight += submitIfReady(completionService, waitingOn, fixture, setUp);
+        }
+
+        final List<Throwable> errors = new ArrayList<Throwable>();
+        while (inFlight > 0) {
+            final Outcome outcome = takeOutcome(completionService);
+            --inFlight;
+            if (record(outcome, setUp, errors)) {
+                for (final TestFixture successor : successorsOf(successors, outcome.fixture)) {
+                    inFlight += submitIfReady(completionService, waitingOn, successor, setUp);
+                }
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * @param outcome
+     *        the {@link Outcome} of setting up or tearing down a fixture
+     * @param setUp
+     *        {@code true} if setting up, {@code false} if tearing down
+     * @param errors
+     *        the errors so far
+     * @return {@code true} if fixtures waiting on this one should go ahead. Once any fixture fails to set up, no
+     *         others are started, but tearing down carries on regardless.
+     */
+    private boolean record(final Outcome outcome, final boolean setUp, final List<Throwable> errors) {
+        if (!outcome.succeeded()) {
+            errors.add(outcome.failure);
+        } else if (setUp) {
+            started.add(outcome.fixture);
+        }
+        return errors.isEmpty() || !setUp;
+    }
+
+    /**
+     * Counts down the prerequisites the given fixture is waiting on, and submits it once there are none left.
+     *
+     * @param completionService
+     *        the {@link CompletionService}
+     * @param waitingOn
+     *        the number of prerequisites each fixture is still waiting on
+     * @param fixture
+     *        the fixture one of whose prerequisites has just completed
+     * @param setUp
+     *        {@code true} to set up, {@code false} to tear down
+     * @return 1 if submitted, 0 otherwise
+     */
+    private int submitIfReady(final CompletionService<Outcome> completionService,
+            final Map<TestFixture, Integer> waitingOn, final TestFixture fixture, final boolean setUp) {
+        final int remaining = waitingOn.get(fixture) - 1;
+        waitingOn.put(fixture, remaining);
+        if (remaining == 0) {
+            completionService.submit(new LifecycleTask(fixture, description, setUp));
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * @param successors
+     *        the successors map
+     * @param fixture
+     *        the fixture
+     * @return the (mutable) list of fixtures that wait on the given fixture
+     */
+    private static List<TestFixture> successorsOf(final Map<TestFixture, List<TestFixture>> successors,
+            final TestFixture fixture) {
+        List<TestFixture> list = successors.get(fixture);
+        if (list == null) {
+            list = new ArrayList<TestFixture>();
+            successors.put(fixture, list);
+        }
+        return list;
+    }
+
+    /**
+     * @param completionService
+     *        the {@link CompletionService}
+     * @return the next {@link Outcome}
+     * @throws InterruptedException
+     *         if interrupted while waiting
+     */
+    private static Outcome takeOutcome(final CompletionService<Outcome> completionService)
+            throws InterruptedException {
+        try {
+            return completionService.take().get();
+        } catch (final ExecutionException e) {
+            // LifecycleTask never throws
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Sets up or tears down a single fixture, capturing anything it throws. A lazy fixture is only armed instead, and
+     * only torn down if it was activated.
+     */
+    private static final class LifecycleTask implements Callable<Outcome> {
+
+        private final TestFixture fixture;
+
+        private final Description description;
+
+        private final boolean setUp;
+
+        /**
+         * @param fixture
+         *        the fixture
+         * @param description
+         *        the {@link Description} to publish timings against
+         * @param setUp
+         *        {@code true} to set up, {@code false} to tear down
+         */
+        LifecycleTask(final TestFixture fixture, final Description description, final boolean setUp) {
+            this.fixture = fixture;
+            this.description = description;
+            this.setUp = setUp;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see java.util.concurrent.Callable#call()
+         */
+        @Override
+        public Outcome call() {
+            if (fixture.isLazy()) {
+                if (setUp) {
+                    fixture.defer(description);
+                    return new Outcome(fixture, null);
+                }
+                if (!fixture.deactivate()) {
+                    return new Outcome(fixture, null);
+                }
+            }
+            final long start = System.nanoTime();
+            try {
+                if (setUp) {
+                    fixture.invokeSetUp();
+                } else {
+                    fixture.invokeTearDown();
+                }
+                return new Outcome(fixture, null);
+            } catch (final Throwable t) {
+                return new Outcome(fixture, t);
+            } finally {
+                if (setUp) {
+                    FixtureTimings.publish(fixture, description, FixturePhase.SET_UP, start);
+                } else {
+                    FixtureTimings.publish(fixture, description, FixturePhase.TEAR_DOWN, start);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a test method to be run on several threads at once by {@link ConcurrentRule}.
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+@Target({ ElementType.METHOD })
+@Retention(RUNTIME)
+public @interface Concurrent {
+
+    /**
+     * The number of threads
+     */
+    int threads() default 4;
+
+    /**
+     * The number of times each thread runs the test
+     */
+    int iterations() default 1;
+
+    /**
+     * {@code true} to run on virtual threads (Java 21 and later), falls back to platform threads where unavailable
+     */
+    boolean virtualThreads() default false;
+}
@@ -0,0 +1,331 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.MultipleFailureException;
+import org.junit.runners.model.Statement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Runs each {@link Concurrent} test method on {@link Concurrent#threads()} threads at once. The threads wait for each
+ * other on a barrier before they start, so that they actually contend. Every failure, from every thread and iteration,
+ * is reported, not just the first.
+ * </p>
+ *
+ * <pre>
+ * &#064;ClassRule
+ * public static final DerbyDataSourceRule DERBY = new DerbyDataSourceRule();
+ *
+ * &#064;Rule
+ * public final ConcurrentRule concurrent = new ConcurrentRule();
+ *
+ * &#064;Test
+ * &#064;Concurrent(threads = 8, iterations = 50)
+ * public void testSaveAndFind() {
+ * </pre>
+ * <p>
+ * After each test, the throughput and the time threads spent blocked on monitors or waiting (once past the start
+ * barrier) are logged, and are available from the getters. Blocked time needs thread contention monitoring, which this
+ * rule turns on for the duration of the test where the JVM supports it; it is not available for virtual threads.
+ * </p>
+ * <p>
+ * Each thread re-evaluates whatever this rule wraps. With JUnit 4.9, that includes the {@link org.junit.Before} and
+ * {@link org.junit.After} methods, and may include other rules, which then must be thread-safe. Shared fixtures are
+ * best declared as {@link org.junit.ClassRule}s.
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+public class ConcurrentRule implements TestRule {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrentRule.class);
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static int monitoringUsers;
+
+    private static boolean monitoringEnabledHere;
+
+    private final Object contention = new Object();
+
+    private long blockedCount;
+
+    private long blockedMillis;
+
+    private long waitedMillis;
+
+    private long operations;
+
+    private long elapsedNanos;
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.junit.rules.TestRule#apply(org.junit.runners.model.Statement, org.junit.runner.Description)
+     */
+    @Override
+    public final Statement apply(final Statement base, final Description description) {
+        final Concurrent concurrent = description.getAnnotation(Concurrent.class);
+        if (concurrent == null) {
+            return base;
+        }
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                final List<Throwable> errors = run(base, concurrent);
+                logger.info(description.getDisplayName() + ": " + ConcurrentRule.this);
+                MultipleFailureException.assertEmpty(errors);
+            }
+        };
+    }
+
+    /**
+     * @param base
+     *        the {@link Statement} to run
+     * @param concurrent
+     *        the {@link Concurrent} settings
+     * @return the failures
+     * @throws InterruptedException
+     *         if interrupted while waiting for the threads
+     */
+    private List<Throwable> run(final Statement base, final Concurrent concurrent) throws InterruptedException {
+        startContentionMonitoring();
+        try {
+            return runThreads(base, concurrent);
+        } finally {
+            stopContentionMonitoring();
+        }
+    }
+
+    /**
+     * Turns on thread contention monitoring, if it's supported and not on already.
+     */
+    private static synchronized void startContentionMonitoring() {
+        ++monitoringUsers;
+        if (THREADS.isThreadContentionMonitoringSupported() && !THREADS.isThreadContentionMonitoringEnabled()) {
+            THREADS.setThreadContentionMonitoringEnabled(true);
+            monitoringEnabledHere = true;
+        }
+    }
+
+    /**
+     * Turns thread contention monitoring back off once no test needs it, if it was turned on by this rule.
+     */
+    private static synchronized void stopContentionMonitoring() {
+        --monitoringUsers;
+        if (monitoringUsers == 0 && monitoringEnabledHere) {
+            THREADS.setThreadContentionMonitoringEnabled(false);
+            monitoringEnabledHere = false;
+        }
+    }
+
+    /**
+     * @param base
+     *        the {@link Statement} to run
+     * @param concurrent
+     *        the {@link Concurrent} settings
+     * @return the failures
+     * @throws InterruptedException
+     *         if interrupted while waiting for the threads
+     */
+    private List<Throwable> runThreads(final Statement base, final Concurrent concurrent)
+            throws InterruptedException {
+        final int n = Math.max(1, concurrent.threads());
+        final List<Throwable> errors = new ArrayList<Throwable>();
+        final CyclicBarrier barrier = new CyclicBarrier(n);
+        final List<Thread> threads = new ArrayList<Thread>(n);
+        synchronized (contention) {
+            blockedCount = 0;
+            blockedMillis = 0;
+            waitedMillis = 0;
+        }
+        for (int i = 0; i < n; ++i) {
+            final Runnable worker = new Runnable() {
+                @Override
+                public void run() {
+                    work(base, concurrent.iterations(), barrier, errors);
+                }
+            };
+            threads.add(newThread(worker, concurrent.virtualThreads()));
+        }
+        final long start = System.nanoTime();
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        elapsedNanos = System.nanoTime() - start;
+        operations = (long) n * concurrent.iterations();
+        return errors;
+    }
+
+    /**
+     * @param base
+     *        the {@link Statement} to run
+     * @param iterations
+     *        the number of times to run it
+     * @param barrier
+     *        the start barrier
+     * @param errors
+     *        where to collect failures
+     */
+    private void work(final Statement base, final int iterations, final CyclicBarrier barrier,
+            final List<Throwable> errors) {
+        ThreadInfo start = null;
+        try {
+            barrier.await();
+            // so the wait at the barrier isn't counted
+            start = THREADS.getThreadInfo(Thread.currentThread().getId());
+            for (int i = 0; i < iterations; ++i) {
+                try {
+                    base.evaluate();
+                } catch (final Throwable t) {
+                    synchronized (errors) {
+                        errors.add(t);
+                    }
+                }
+            }
+        } catch (final Exception e) {
+            synchronized (errors) {
+                errors.add(e);
+            }
+        } finally {
+            addContention(start, THREADS.getThreadInfo(Thread.currentThread().getId()));
+        }
+    }
+
+    /**
+     * @param start
+     *        the thread's {@link ThreadInfo} after the start barrier, may be {@code null}
+     * @param end
+     *        its {@link ThreadInfo} when done, may be {@code null}
+     */
+    private void addContention(final ThreadInfo start, final ThreadInfo end) {
+        if (start == null || end == null) {
+            return;
+        }
+        synchronized (contention) {
+            blockedCount += end.getBlockedCount() - start.getBlockedCount();
+            blockedMillis = addTime(blockedMillis, start.getBlockedTime(), end.getBlockedTime());
+            waitedMillis = addTime(waitedMillis, start.getWaitedTime(), end.getWaitedTime());
+        }
+    }
+
+    /**
+     * @param total
+     *        the total so far, or {@code -1} if not available
+     * @param start
+     *        the time at the start, or {@code -1} if not available
+     * @param end
+     *        the time at the end, or {@code -1} if not available
+     * @return the new total, or {@code -1} if not available
+     */
+    private static long addTime(final long total, final long start, final long end) {
+        if (total < 0 || start < 0 || end < 0) {
+            return -1;
+        }
+        return total + end - start;
+    }
+
+    /**
+     * @param runnable
+     *        what the thread should run
+     * @param virtual
+     *        {@code true} for a virtual thread, if available
+     * @return a new, unstarted thread
+     */
+    private static Thread newThread(final Runnable runnable, final boolean virtual) {
+        if (virtual) {
+            try {
+                final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                final Method unstarted = Class.forName("java.lang.Thread$Builder").getMethod("unstarted",
+                        Runnable.class);
+                return (Thread) unstarted.invoke(builder, runnable);
+            } catch (final Exception e) {
+                logger.debug("Virtual threads not available, using platform threads: " + e);
+            }
+        }
+        final Thread thread = new Thread(runnable);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * @return the number of times the test was run by all threads in the last (or current) test
+     */
+    public final long getOperations() {
+        return operations;
+    }
+
+    /**
+     * @return the operations per second of the last test
+     */
+    public final double getThroughput() {
+        if (elapsedNanos <= 0) {
+            return 0;
+        }
+        return operations * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * @return the number of times threads blocked on a monitor, over all threads of the last test
+     */
+    public final long getBlockedCount() {
+        synchronized (contention) {
+            return blockedCount;
+        }
+    }
+
+    /**
+     * @return the time, in milliseconds, threads spent blocked on a monitor, over all threads of the last test, or
+     *         {@code -1} if thread contention monitoring is not available
+     */
+    public final long getBlockedMillis() {
+        synchronized (contention) {
+            return blockedMillis;
+        }
+    }
+
+    /**
+     * @return the time, in milliseconds, threads spent waiting (including parking on locks), over all threads of the
+     *         last test, or {@code -1} if thread contention monitoring is not available
+     */
+    public final long getWaitedMillis() {
+        synchronized (contention) {
+            return waitedMillis;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public final String toString() {
+        return operations + " ops in " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms ("
+                + Math.round(getThroughput()) + " ops/s), blocked " + getBlockedCount() + " times for "
+                + getBlockedMillis() + " ms, waited " + getWaitedMillis() + " ms";
+    }
+}
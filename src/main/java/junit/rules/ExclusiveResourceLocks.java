@@ -0,0 +1,102 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.runner.Description;
+
+/**
+ * Grants sets of {@link ExclusiveResources} all at once, so that callers never hold some of the resources they need
+ * while waiting for the rest (and so can't deadlock).
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+final class ExclusiveResourceLocks {
+
+    private final Set<String> held = new HashSet<String>();
+
+    /**
+     * Takes all of the given resources, if none of them are held.
+     *
+     * @param resources
+     *        the resources to acquire
+     * @return {@code true} if they were acquired, {@code false} if any of them is held
+     */
+    synchronized boolean tryAcquire(final Set<String> resources) {
+        if (!Collections.disjoint(held, resources)) {
+            return false;
+        }
+        held.addAll(resources);
+        return true;
+    }
+
+    /**
+     * @param resources
+     *        the resources to release, previously acquired using {@link #tryAcquire(Set)}
+     */
+    synchronized void release(final Set<String> resources) {
+        held.removeAll(resources);
+    }
+
+    /**
+     * @param description
+     *        the {@link Description} of a test class or suite
+     * @return the resources declared by all test classes under the description, and by their fixtures
+     */
+    static Set<String> resourcesOf(final Description description) {
+        final Set<String> resources = new HashSet<String>();
+        addResources(description, new HashSet<Class<?>>(), resources);
+        return resources;
+    }
+
+    /**
+     * @param description
+     *        the {@link Description} to walk
+     * @param visited
+     *        the test classes already inspected
+     * @param resources
+     *        the resources found so far
+     */
+    private static void addResources(final Description description, final Set<Class<?>> visited,
+            final Set<String> resources) {
+        final Class<?> testClass = description.getTestClass();
+        if (testClass != null && visited.add(testClass)) {
+            addResources(testClass.getAnnotation(ExclusiveResources.class), resources);
+            for (Class<?> c = testClass; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (final Field field : c.getDeclaredFields()) {
+                    if (FixtureSignatures.isFixtureRule(field)) {
+                        addResources(field.getAnnotation(ExclusiveResources.class), resources);
+                        addResources(field.getType().getAnnotation(ExclusiveResources.class), resources);
+                    }
+                }
+            }
+        }
+        for (final Description child : description.getChildren()) {
+            addResources(child, visited, resources);
+        }
+    }
+
+    /**
+     * @param annotation
+     *        the {@link ExclusiveResources} annotation, may be {@code null}
+     * @param resources
+     *        the resources found so far
+     */
+    private static void addResources(final ExclusiveResources annotation, final Set<String> resources) {
+        if (annotation != null) {
+            resources.addAll(Arrays.asList(annotation.value()));
+        }
+    }
+}
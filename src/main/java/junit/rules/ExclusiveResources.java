@@ -0,0 +1,63 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * <p>
+ * Declares the process-wide resources (ports, global singletons, named databases) that a {@link TestFixture} type, a
+ * fixture field or a test class needs exclusive use of. {@link ParallelSuite} never runs two test classes that share a
+ * resource at the same time.
+ * </p>
+ * <p>
+ * Resources are plain names, compared with {@link String#equals(Object)}. The resources used by the fixtures in this
+ * library are declared on the fixture classes themselves, using the constants below.
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+@Inherited
+@Retention(RUNTIME)
+@Target({ TYPE, FIELD })
+public @interface ExclusiveResources {
+
+    /**
+     * The default HTTP port, see {@link junit.rules.httpserver.BaseHttpServerRule#DEFAULT_HTTP_PORT}.
+     */
+    String DEFAULT_HTTP_PORT = "port:8000";
+
+    /**
+     * The JVM-wide {@link javax.naming.spi.NamingManager} initial context factory builder, for fixtures that install
+     * their own. {@link junit.rules.jndi.StubJndiContext} doesn't need it, as it routes each test to its own bindings.
+     */
+    String JNDI = "jndi";
+
+    /**
+     * The {@code jdbc:derby:test} database.
+     */
+    String DERBY_TEST = "jdbc:derby:test";
+
+    /**
+     * The {@code jdbc:derby:memory:test} database.
+     */
+    String DERBY_MEMORY_TEST = "jdbc:derby:memory:test";
+
+    /**
+     * The resource names.
+     */
+    String[] value();
+}
@@ -10,7 +10,7 @@ package junit.rules;
 
 import static junit.framework.Assert.fail;
 
-import java.lang.reflect.Method;
+import junit.rules.index.AnnotationIndex;
 
 import org.junit.rules.TestRule;
 import org.junit.runner.Description;
@@ -31,34 +31,26 @@ public class ExpectedExceptions implements TestRule {
     public final Statement apply(final Statement base, final Description description) {
         final Class<?> testClass = description.getTestClass();
         final String methodName = description.getMethodName();
-        try {
-            final Method method = testClass.getMethod(methodName);
-            if (method == null) {
-                fail("getMethod(\"" + methodName + "\") returned null!");
-            }
-            final Throws throwsAnnotation = method.getAnnotation(Throws.class);
-            if (throwsAnnotation == null) {
-                return base;
-            }
-            final Class<? extends Throwable> expected = throwsAnnotation.value();
-            return new Statement() {
-                @Override
-                public void evaluate() throws Throwable {
-                    try {
-                        base.evaluate();
-                        fail("Expected exception " + expected.getName() + " not thrown!");
-                    } catch (final Throwable t) {
-                        if (!expected.isInstance(t)) {
-                            throw t;
-                        }
+        if (testClass == null || methodName == null) {
+            return base;
+        }
+        final Class<? extends Throwable> expected = AnnotationIndex.of(testClass).getThrows(methodName);
+        if (expected == null) {
+            return base;
+        }
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                try {
+                    base.evaluate();
+                    fail("Expected exception " + expected.getName() + " not thrown!");
+                } catch (final Throwable t) {
+                    if (!expected.isInstance(t)) {
+                        throw t;
                     }
                 }
-            };
-        } catch (final SecurityException e) {
-            throw new RuntimeException(e);
-        } catch (final NoSuchMethodException e) {
-            throw new RuntimeException(e);
-        }
+            }
+        };
     }
 
 }
@@ -0,0 +1,88 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.InitializationError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * A JUnit 4 class runner that runs test methods with identical method-level {@link junit.rules.dbunit.Fixtures} one
+ * after the other, so that fixtures shared between them (see {@link FixturePool} and
+ * {@link TestFixture#resetAfterEachTest()}) are rebuilt once per distinct configuration rather than once per test.
+ * Methods are otherwise left in their original order.
+ * </p>
+ *
+ * <pre>
+ * &#064;RunWith(FixtureAffinityRunner.class)
+ * public class UserDaoTest {
+ * </pre>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ * @see FixtureAffinitySuite
+ */
+public final class FixtureAffinityRunner extends BlockJUnit4ClassRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(FixtureAffinityRunner.class);
+
+    private int rebuilds;
+
+    private int avoidedRebuilds;
+
+    /**
+     * @param klass
+     *        the test class
+     * @throws InitializationError
+     *         if the test class is malformed
+     */
+    public FixtureAffinityRunner(final Class<?> klass) throws InitializationError {
+        super(klass);
+        logger.debug(klass.getName() + ": " + rebuilds + " fixture configuration(s), at most "
+                + avoidedRebuilds + " rebuild(s) avoided");
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.junit.runners.BlockJUnit4ClassRunner#computeTestMethods()
+     */
+    @Override
+    protected List<FrameworkMethod> computeTestMethods() {
+        final List<FrameworkMethod> methods = super.computeTestMethods();
+        final List<String> signatures = new ArrayList<String>(methods.size());
+        for (final FrameworkMethod method : methods) {
+            signatures.add(FixtureSignatures.of(method.getMethod()));
+        }
+        rebuilds = FixtureSignatures.countRebuilds(FixtureSignatures.grouped(signatures));
+        avoidedRebuilds = FixtureSignatures.countRebuilds(signatures) - rebuilds;
+        return FixtureSignatures.group(methods, signatures);
+    }
+
+    /**
+     * @return the number of distinct fixture configurations, that is, at least how many times fixtures are rebuilt
+     */
+    public int getRebuilds() {
+        return rebuilds;
+    }
+
+    /**
+     * @return at most how many fixture rebuilds were avoided by reordering the test methods, since method signatures
+     *         only cover their {@link junit.rules.dbunit.Fixtures}
+     */
+    public int getAvoidedRebuilds() {
+        return avoidedRebuilds;
+    }
+}
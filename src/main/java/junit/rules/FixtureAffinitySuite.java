@@ -0,0 +1,101 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.runner.Runner;
+import org.junit.runners.Suite;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * A drop-in replacement for {@link Suite} that runs test classes with the same fixture signature one after the other.
+ * A class' signature is made up of its {@link junit.rules.dbunit.Fixtures} and the types of its {@link TestFixture}
+ * rules. Combined with shared fixtures (see {@link FixturePool}), this turns one rebuild per test class into one per
+ * distinct configuration.
+ * </p>
+ *
+ * <pre>
+ * &#064;RunWith(FixtureAffinitySuite.class)
+ * &#064;SuiteClasses({ UserDaoTest.class, OrderDaoTest.class, UserResourceTest.class })
+ * public class AllTests {
+ * }
+ * </pre>
+ * <p>
+ * Use {@link FixtureAffinityRunner} to also group the test methods within each class.
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+public final class FixtureAffinitySuite extends Suite {
+
+    private static final Logger logger = LoggerFactory.getLogger(FixtureAffinitySuite.class);
+
+    private final List<Runner> runners;
+
+    private final int rebuilds;
+
+    private final int avoidedRebuilds;
+
+    /**
+     * Called reflectively by JUnit.
+     *
+     * @param klass
+     *        the suite class
+     * @param builder
+     *        the {@link RunnerBuilder} for the suite classes
+     * @throws InitializationError
+     *         if the suite is malformed
+     */
+    public FixtureAffinitySuite(final Class<?> klass, final RunnerBuilder builder) throws InitializationError {
+        super(klass, builder);
+        final List<Runner> children = super.getChildren();
+        final List<String> signatures = new ArrayList<String>(children.size());
+        for (final Runner runner : children) {
+            signatures.add(FixtureSignatures.of(runner.getDescription().getTestClass()));
+        }
+        runners = FixtureSignatures.group(children, signatures);
+        rebuilds = FixtureSignatures.countRebuilds(FixtureSignatures.grouped(signatures));
+        avoidedRebuilds = FixtureSignatures.countRebuilds(signatures) - rebuilds;
+        logger.info(klass.getName() + ": " + rebuilds + " fixture configuration(s), at most "
+                + avoidedRebuilds + " rebuild(s) avoided");
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.junit.runners.Suite#getChildren()
+     */
+    @Override
+    protected List<Runner> getChildren() {
+        return runners;
+    }
+
+    /**
+     * @return the number of distinct fixture configurations, that is, at least how many times fixtures are rebuilt
+     */
+    public int getRebuilds() {
+        return rebuilds;
+    }
+
+    /**
+     * @return at most how many fixture rebuilds were avoided by reordering the suite classes. It's an upper bound, since
+     *         fixtures of the same type that are configured differently in ways the signature can't see still have to
+     *         be rebuilt.
+     */
+    public int getAvoidedRebuilds() {
+        return avoidedRebuilds;
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.runners.model.Statement;
+
+/**
+ * Runs a fixture lifecycle method on its own daemon thread, and gives up on it once its deadline has passed.
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+final class FixtureDeadline {
+
+    /**
+     * Utility classes should not have a public or default constructor.
+     */
+    private FixtureDeadline() {
+        // noop
+    }
+
+    /**
+     * @param fixture
+     *        the {@link TestFixture}
+     * @param methodName
+     *        the name of the lifecycle method, for messages
+     * @param timeoutMillis
+     *        the deadline, if {@code 0} or less the body is simply run on the calling thread
+     * @param body
+     *        the lifecycle method call
+     * @throws Throwable
+     *         whatever the body throws, {@link FixtureTimeoutException} if the deadline was missed, or
+     *         {@link InterruptedException} if interrupted while waiting
+     */
+    static void run(final TestFixture fixture, final String methodName, final long timeoutMillis,
+            final Statement body) throws Throwable {
+        if (timeoutMillis <= 0) {
+            body.evaluate();
+            return;
+        }
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final String name = fixture.getClass().getName() + "." + methodName + "()";
+        final Thread thread = new Thread(name) {
+            @Override
+            public void run() {
+                try {
+                    body.evaluate();
+                } catch (final Throwable t) {
+                    failure.set(t);
+                }
+            }
+        };
+        thread.setDaemon(true);
+        thread.start();
+        try {
+            thread.join(timeoutMillis);
+        } catch (final InterruptedException e) {
+            thread.interrupt();
+            throw e;
+        }
+        if (thread.isAlive()) {
+            final StackTraceElement[] stuck = thread.getStackTrace();
+            thread.interrupt();
+            throw new FixtureTimeoutException(name + " did not complete within " + timeoutMillis
+                    + " ms, stack trace is that of the stuck thread \"" + name + "\"", stuck);
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+/**
+ * The phases of a {@link TestFixture}'s lifecycle that are timed and published to {@link FixtureTimingListener}s.
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+public enum FixturePhase {
+
+    /**
+     * {@link TestFixture#inspect(org.junit.runner.Description)}
+     */
+    INSPECT,
+
+    /**
+     * {@link TestFixture#setUp()}
+     */
+    SET_UP,
+
+    /**
+     * The test (or test class) body, including any rules nested inside the fixture
+     */
+    TEST,
+
+    /**
+     * {@link TestFixture#reset()}
+     */
+    RESET,
+
+    /**
+     * {@link TestFixture#tearDown()}
+     */
+    TEAR_DOWN
+}
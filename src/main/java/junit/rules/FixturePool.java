@@ -0,0 +1,383 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.runner.Description;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * A registry of {@link TestFixture}s shared across test classes, keyed by their configuration.
+ * </p>
+ * <p>
+ * A fixture is built and {@link TestFixture#setUp() set up} the first time its key is acquired, and handed out again
+ * to every later user of the same key. The pool counts references, and only {@link TestFixture#tearDown() tears down}
+ * a fixture once it is no longer referenced and is evicted, either because it has been idle for longer than the idle
+ * timeout, because the pool holds more than its maximum number of fixtures, or because the JVM is shutting down. Idle
+ * fixtures are evicted by a background daemon thread once their timeout has passed, even if nothing else is released.
+ * </p>
+ * <p>
+ * Every user of a pooled fixture has it {@link TestFixture#inspect(Description) inspect} their test class (or test),
+ * just as if it weren't pooled, but only the first has it set up.
+ * </p>
+ *
+ * <pre>
+ * &#064;ClassRule
+ * public static final SharedFixture&lt;DerbyDataSourceRule&gt; DERBY = FixturePool.shared(&quot;derby:test&quot;,
+ *         new Callable&lt;DerbyDataSourceRule&gt;() {
+ *             public DerbyDataSourceRule call() {
+ *                 return new DerbyDataSourceRule(&quot;test&quot;);
+ *             }
+ *         });
+ * </pre>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+public final class FixturePool {
+
+    private static final Logger logger = LoggerFactory.getLogger(FixturePool.class);
+
+    /**
+     * The default maximum number of fixtures held by a pool, {@value #DEFAULT_MAXIMUM_SIZE}
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 32;
+
+    /**
+     * The default idle timeout, in milliseconds ({@value #DEFAULT_IDLE_TIMEOUT_MILLIS}, or 5 minutes)
+     */
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 5 * 60 * 1000L;
+
+    private static FixturePool defaultPool;
+
+    private final Map<Object, Entry> entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private volatile int maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+    private volatile long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_IDLE_TIMEOUT_MILLIS);
+
+    private ScheduledFuture<?> reaper;
+
+    /**
+     * A pooled fixture and its reference count.
+     */
+    private static final class Entry {
+
+        private final Object key;
+
+        private TestFixture fixture;
+
+        private int references;
+
+        private long lastReleased;
+
+        /**
+         * @param key
+         *        the key
+         */
+        Entry(final Object key) {
+            this.key = key;
+        }
+
+        /**
+         * @param now
+         *        the current {@link System#nanoTime()}
+         * @param idleTimeoutNanos
+         *        the idle timeout, in nanoseconds
+         * @return {@code true} if unreferenced for longer than the idle timeout
+         */
+        boolean isIdleSince(final long now, final long idleTimeoutNanos) {
+            return references == 0 && now - lastReleased > idleTimeoutNanos;
+        }
+    }
+
+    /**
+     * @return the JVM-wide pool, whose fixtures are torn down when the JVM shuts down
+     */
+    public static synchronized FixturePool getDefault() {
+        if (defaultPool == null) {
+            final FixturePool pool = new FixturePool();
+            Runtime.getRuntime().addShutdownHook(new Thread("FixturePool shutdown") {
+                @Override
+                public void run() {
+                    logger.info("Shutting down fixture pool: " + pool);
+                    pool.close();
+                }
+            });
+            defaultPool = pool;
+        }
+        return defaultPool;
+    }
+
+    /**
+     * Equivalent to {@code FixturePool.getDefault().share(key, factory)}.
+     *
+     * @param <T>
+     *        the fixture type
+     * @param key
+     *        the fixture key, must implement {@link Object#equals(Object)} and {@link Object#hashCode()}
+     * @param factory
+     *        builds the fixture the first time the key is acquired
+     * @return a {@link SharedFixture}
+     */
+    public static <T extends TestFixture> SharedFixture<T> shared(final Object key, final Callable<T> factory) {
+        return getDefault().share(key, factory);
+    }
+
+    /**
+     * @param <T>
+     *        the fixture type
+     * @param key
+     *        the fixture key, must implement {@link Object#equals(Object)} and {@link Object#hashCode()}
+     * @param factory
+     *        builds the fixture the first time the key is acquired
+     * @return a {@link SharedFixture} rule that acquires the fixture from this pool for the duration of a test or
+     *         test class
+     */
+    public <T extends TestFixture> SharedFixture<T> share(final Object key, final Callable<T> factory) {
+        return new SharedFixture<T>(this, key, factory);
+    }
+
+    /**
+     * @param maximumSize
+     *        the maximum number of fixtures to hold before evicting the least recently used idle ones
+     */
+    public void setMaximumSize(final int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * @param idleTimeout
+     *        how long an unreferenced fixture is kept before it is evicted
+     * @param unit
+     *        the {@link TimeUnit} of {@code idleTimeout}
+     */
+    public synchronized void setIdleTimeout(final long idleTimeout, final TimeUnit unit) {
+        this.idleTimeoutNanos = unit.toNanos(idleTimeout);
+        if (reaper != null) {
+            // the next check was scheduled for the old timeout
+            reaper.cancel(false);
+            reapAfter(0);
+        }
+    }
+
+    /**
+     * @return the number of acquisitions that found a pooled fixture
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of acquisitions that had to build a new fixture
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of fixtures evicted (and torn down) so far
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * @return the number of fixtures currently pooled
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Acquires the fixture for the given key, building and setting it up if necessary, and has it inspect the
+     * description.
+     *
+     * @param key
+     *        the fixture key
+     * @param factory
+     *        builds the fixture if none is pooled under the key
+     * @param description
+     *        the {@link Description} of the test class (or test) acquiring the fixture
+     * @return the fixture
+     * @throws Throwable
+     *         if the fixture could not be built or set up
+     */
+    TestFixture acquire(final Object key, final Callable<? extends TestFixture> factory, final Description description)
+            throws Throwable {
+        final Entry entry;
+        synchronized (this) {
+            final Entry existing = entries.get(key);
+            if (existing == null) {
+                misses.incrementAndGet();
+                entry = new Entry(key);
+                entries.put(key, entry);
+            } else {
+                hits.incrementAndGet();
+                entry = existing;
+            }
+            ++entry.references;
+        }
+        try {
+            synchronized (entry) {
+                if (entry.fixture == null) {
+                    final TestFixture fixture = factory.call();
+                    fixture.prepare(description);
+                    fixture.invokeSetUp();
+                    entry.fixture = fixture;
+                } else {
+                    entry.fixture.prepare(description);
+                }
+                return entry.fixture;
+            }
+        } catch (final Throwable t) {
+            synchronized (this) {
+                --entry.references;
+                if (entry.references == 0 && entries.get(key) == entry) {
+                    entries.remove(key);
+                }
+            }
+            throw t;
+        }
+    }
+
+    /**
+     * Releases one reference to the fixture for the given key, and evicts any idle fixtures that are due. If that was
+     * the last reference, makes sure the fixture is evicted once its idle timeout has passed.
+     *
+     * @param key
+     *        the fixture key
+     */
+    void release(final Object key) {
+        synchronized (this) {
+            final Entry entry = entries.get(key);
+            if (entry != null) {
+                --entry.references;
+                entry.lastReleased = System.nanoTime();
+                if (entry.references == 0 && reaper == null) {
+                    // isIdleSince() wants strictly longer than the timeout
+                    reapAfter(idleTimeoutNanos + 1);
+                }
+            }
+        }
+        tearDown(collectEvictable(false));
+    }
+
+    /**
+     * Schedules a check for idle fixtures. Call while holding the lock.
+     *
+     * @param delayNanos
+     *        when to check, in nanoseconds from now
+     */
+    private void reapAfter(final long delayNanos) {
+        reaper = IdleFixtureReaper.schedule(this, delayNanos);
+    }
+
+    /**
+     * Evicts the fixtures that have been idle too long, then schedules the next check, if any fixture is unreferenced.
+     */
+    void reap() {
+        synchronized (this) {
+            reaper = null;
+        }
+        tearDown(collectEvictable(false));
+        synchronized (this) {
+            if (reaper != null) {
+                return;
+            }
+            final long now = System.nanoTime();
+            long next = Long.MAX_VALUE;
+            for (final Entry entry : entries.values()) {
+                if (entry.references == 0) {
+                    next = Math.min(next, entry.lastReleased + idleTimeoutNanos + 1 - now);
+                }
+            }
+            if (next != Long.MAX_VALUE) {
+                reapAfter(Math.max(0, next));
+            }
+        }
+    }
+
+    /**
+     * Evicts and tears down all pooled fixtures, whether referenced or not.
+     */
+    public void close() {
+        tearDown(collectEvictable(true));
+    }
+
+    /**
+     * @param all
+     *        evict all entries, regardless of whether they're idle
+     * @return the entries removed from the pool
+     */
+    private synchronized List<Entry> collectEvictable(final boolean all) {
+        final List<Entry> evicted = new ArrayList<Entry>();
+        final long now = System.nanoTime();
+        int excess = entries.size() - maximumSize;
+        // iterates least recently used first
+        for (final Iterator<Entry> it = entries.values().iterator(); it.hasNext();) {
+            final Entry entry = it.next();
+            if (all || entry.references == 0 && excess > 0 || entry.isIdleSince(now, idleTimeoutNanos)) {
+                it.remove();
+                evicted.add(entry);
+                --excess;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * @param evicted
+     *        the entries to tear down
+     */
+    private void tearDown(final List<Entry> evicted) {
+        for (final Entry entry : evicted) {
+            synchronized (entry) {
+                if (entry.fixture != null) {
+                    logger.debug("Tearing down pooled fixture " + entry.key);
+                    try {
+                        entry.fixture.invokeTearDown();
+                    } catch (final Throwable t) {
+                        logger.warn(t.getClass().getName() + " tearing down pooled fixture " + entry.key, t);
+                    }
+                    entry.fixture = null;
+                }
+            }
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "FixturePool[size=" + size() + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+                + "]";
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import junit.rules.dbunit.FixturesUtil;
+
+import org.junit.ClassRule;
+import org.junit.Rule;
+
+/**
+ * Computes the fixture "signature" of test classes and methods, that is, the {@link junit.rules.dbunit.Fixtures}
+ * names and the {@link TestFixture} (and {@link SharedFixture}) rule types they declare, so that tests with identical
+ * signatures can be run one after the other. For static rule fields the fixture's configuration key (see
+ * {@link SharedFixture#getKey()} and {@link TestFixture#getConfigurationKey()}) is part of the signature too. Instance
+ * fields can't be read without creating the test, so two tests with fixtures of the same type but different
+ * configurations may share a signature, and the rebuilds counted from signatures are then a lower bound.
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+final class FixtureSignatures {
+
+    /**
+     * Utility classes should not have a public or default constructor.
+     */
+    private FixtureSignatures() {
+        // noop
+    }
+
+    /**
+     * @param testClass
+     *        the test class, may be {@code null}
+     * @return the signature of the test class
+     */
+    static String of(final Class<?> testClass) {
+        if (testClass == null) {
+            return "";
+        }
+        final SortedSet<String> fixtureTypes = new TreeSet<String>();
+        for (Class<?> c = testClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (final Field field : c.getDeclaredFields()) {
+                if (isFixtureRule(field) || isSharedFixtureRule(field)) {
+                    fixtureTypes.add(signatureOf(field));
+                }
+            }
+        }
+        return new TreeSet<String>(FixturesUtil.getFixtureNames(testClass)) + " " + fixtureTypes;
+    }
+
+    /**
+     * @param method
+     *        the test method
+     * @return the signature of the test method, not including that of its class
+     */
+    static String of(final Method method) {
+        return new TreeSet<String>(FixturesUtil.getFixtureNames(method)).toString();
+    }
+
+    /**
+     * @param field
+     *        the field
+     * @return {@code true} if the field is a {@link Rule} or {@link ClassRule} of type {@link TestFixture}
+     */
+    static boolean isFixtureRule(final Field field) {
+        return TestFixture.class.isAssignableFrom(field.getType())
+                && (field.isAnnotationPresent(Rule.class) || field.isAnnotationPresent(ClassRule.class));
+    }
+
+    /**
+     * @param field
+     *        the field
+     * @return {@code true} if the field is a {@link Rule} or {@link ClassRule} of type {@link SharedFixture}
+     */
+    private static boolean isSharedFixtureRule(final Field field) {
+        return SharedFixture.class.isAssignableFrom(field.getType())
+                && (field.isAnnotationPresent(Rule.class) || field.isAnnotationPresent(ClassRule.class));
+    }
+
+    /**
+     * @param field
+     *        a fixture rule field
+     * @return the field's type, along with the fixture's configuration key if the field is static and the fixture has
+     *         one
+     */
+    private static String signatureOf(final Field field) {
+        final String type = field.getType().getName();
+        if (!Modifier.isStatic(field.getModifiers())) {
+            return type;
+        }
+        final Object key = configurationKey(field);
+        if (key == null) {
+            return type;
+        }
+        return type + "=" + key;
+    }
+
+    /**
+     * @param field
+     *        a static fixture rule field
+     * @return the configuration key of the fixture in the field, or {@code null} if there's none or it can't be read
+     */
+    private static Object configurationKey(final Field field) {
+        final Object value;
+        try {
+            field.setAccessible(true);
+            value = field.get(null);
+        } catch (final IllegalAccessException e) {
+            return null;
+        } catch (final SecurityException e) {
+            return null;
+        }
+        if (value instanceof SharedFixture) {
+            return ((SharedFixture<?>) value).getKey();
+        }
+        if (value instanceof TestFixture) {
+            return ((TestFixture) value).getConfigurationKey();
+        }
+        return null;
+    }
+
+    /**
+     * Stable grouping: items with the same signature are moved next to the first item with that signature.
+     *
+     * @param <T>
+     *        the item type
+     * @param items
+     *        the items
+     * @param signatures
+     *        the signature of each item, in the same order
+     * @return the grouped items
+     */
+    static <T> List<T> group(final List<T> items, final List<String> signatures) {
+        final Map<String, List<T>> groups = new LinkedHashMap<String, List<T>>();
+        for (int i = 0; i < items.size(); ++i) {
+            List<T> group = groups.get(signatures.get(i));
+            if (group == null) {
+                group = new ArrayList<T>();
+                groups.put(signatures.get(i), group);
+            }
+            group.add(items.get(i));
+        }
+        final List<T> grouped = new ArrayList<T>(items.size());
+        for (final List<T> group : groups.values()) {
+            grouped.addAll(group);
+        }
+        return grouped;
+    }
+
+    /**
+     * @param signatures
+     *        the signatures, in run order
+     * @return the number of times the signature changes, that is, how many times fixtures would have to be rebuilt
+     */
+    static int countRebuilds(final List<String> signatures) {
+        int rebuilds = 0;
+        String previous = null;
+        for (final String signature : signatures) {
+            if (!signature.equals(previous)) {
+                ++rebuilds;
+            }
+            previous = signature;
+        }
+        return rebuilds;
+    }
+
+    /**
+     * @param signatures
+     *        the signatures, in their original order
+     * @return the same signatures, grouped
+     */
+    static List<String> grouped(final List<String> signatures) {
+        return group(signatures, signatures);
+    }
+}
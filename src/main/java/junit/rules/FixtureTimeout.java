@@ -0,0 +1,53 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Sets the default deadlines for {@link TestFixture#setUp()} and {@link TestFixture#tearDown()} of a fixture type. If a
+ * deadline is missed, the fixture thread is interrupted and the test fails with a {@link FixtureTimeoutException}.
+ * </p>
+ *
+ * <pre>
+ * &#064;FixtureTimeout(setUp = 30, tearDown = 10, unit = TimeUnit.SECONDS)
+ * public class OrderServiceRule extends TestFixture {
+ * </pre>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ * @see TestFixture#setTimeouts(long, long, TimeUnit)
+ */
+@Inherited
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface FixtureTimeout {
+
+    /**
+     * The setUp() deadline, {@code 0} for none.
+     */
+    long setUp() default 0;
+
+    /**
+     * The tearDown() deadline, {@code 0} for none.
+     */
+    long tearDown() default 0;
+
+    /**
+     * The time unit of the deadlines.
+     */
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
+}
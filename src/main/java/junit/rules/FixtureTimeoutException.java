@@ -0,0 +1,33 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+/**
+ * Thrown when a {@link TestFixture} misses its setUp() or tearDown() deadline. Its stack trace is that of the stuck
+ * fixture thread at the time the deadline was missed, not where the exception was thrown.
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ * @see FixtureTimeout
+ */
+public class FixtureTimeoutException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param message
+     *        the detail message
+     * @param stuckThread
+     *        the stack trace of the stuck fixture thread
+     */
+    public FixtureTimeoutException(final String message, final StackTraceElement[] stuckThread) {
+        super(message);
+        setStackTrace(stuckThread);
+    }
+}
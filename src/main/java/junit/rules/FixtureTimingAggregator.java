@@ -0,0 +1,179 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.runner.Description;
+
+/**
+ * A {@link FixtureTimingListener} that keeps, in memory, the count, total and maximum time of each
+ * {@link FixturePhase} per {@link TestFixture} class.
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+public final class FixtureTimingAggregator implements FixtureTimingListener {
+
+    private final ConcurrentMap<Class<? extends TestFixture>, Map<FixturePhase, PhaseStatistics>> statistics =
+            new ConcurrentHashMap<Class<? extends TestFixture>, Map<FixturePhase, PhaseStatistics>>();
+
+    /**
+     * Running statistics for one phase of one fixture class.
+     */
+    public static final class PhaseStatistics {
+
+        private final AtomicLong count = new AtomicLong();
+
+        private final AtomicLong totalNanos = new AtomicLong();
+
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        /**
+         * @param nanos
+         *        the time taken
+         */
+        void record(final long nanos) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+                max = maxNanos.get();
+            }
+        }
+
+        /**
+         * @return the number of times the phase ran
+         */
+        public long getCount() {
+            return count.get();
+        }
+
+        /**
+         * @return the total time taken, in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos.get();
+        }
+
+        /**
+         * @return the longest time taken, in nanoseconds
+         */
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see junit.rules.FixtureTimingListener#phaseCompleted(java.lang.Class, org.junit.runner.Description,
+     *      junit.rules.FixturePhase, long)
+     */
+    @Override
+    public void phaseCompleted(final Class<? extends TestFixture> fixtureClass, final Description description,
+            final FixturePhase phase, final long nanos) {
+        Map<FixturePhase, PhaseStatistics> phases = statistics.get(fixtureClass);
+        if (phases == null) {
+            final Map<FixturePhase, PhaseStatistics> newPhases = new EnumMap<FixturePhase, PhaseStatistics>(
+                    FixturePhase.class);
+            for (final FixturePhase p : FixturePhase.values()) {
+                newPhases.put(p, new PhaseStatistics());
+            }
+            phases = statistics.putIfAbsent(fixtureClass, newPhases);
+            if (phases == null) {
+                phases = newPhases;
+            }
+        }
+        phases.get(phase).record(nanos);
+    }
+
+    /**
+     * @param fixtureClass
+     *        the {@link TestFixture} class
+     * @param phase
+     *        the {@link FixturePhase}
+     * @return the {@link PhaseStatistics}, or {@code null} if no timings have been recorded for the fixture class
+     */
+    public PhaseStatistics getStatistics(final Class<? extends TestFixture> fixtureClass, final FixturePhase phase) {
+        final Map<FixturePhase, PhaseStatistics> phases = statistics.get(fixtureClass);
+        if (phases == null) {
+            return null;
+        }
+        return phases.get(phase);
+    }
+
+    /**
+     * Forgets all timings recorded so far.
+     */
+    public void clear() {
+        statistics.clear();
+    }
+
+    /**
+     * @return a report of all fixture classes and phases, most expensive fixture first
+     */
+    public String getReport() {
+        final List<Class<? extends TestFixture>> fixtureClasses = new ArrayList<Class<? extends TestFixture>>(
+                statistics.keySet());
+        Collections.sort(fixtureClasses, new Comparator<Class<? extends TestFixture>>() {
+            @Override
+            public int compare(final Class<? extends TestFixture> a, final Class<? extends TestFixture> b) {
+                return Long.signum(fixtureNanos(b) - fixtureNanos(a));
+            }
+        });
+        final StringBuilder sb = new StringBuilder();
+        for (final Class<? extends TestFixture> fixtureClass : fixtureClasses) {
+            sb.append(fixtureClass.getName()).append('\n');
+            for (final Map.Entry<FixturePhase, PhaseStatistics> entry : statistics.get(fixtureClass).entrySet()) {
+                final PhaseStatistics stats = entry.getValue();
+                if (stats.getCount() > 0) {
+                    sb.append(String.format("  %-10s count=%d total=%dms max=%dms%n", entry.getKey(), stats
+                            .getCount(), TimeUnit.NANOSECONDS.toMillis(stats.getTotalNanos()), TimeUnit.NANOSECONDS
+                            .toMillis(stats.getMaxNanos())));
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param fixtureClass
+     *        the fixture class
+     * @return the total time the fixture class spent outside the test body
+     */
+    private long fixtureNanos(final Class<? extends TestFixture> fixtureClass) {
+        long total = 0;
+        for (final Map.Entry<FixturePhase, PhaseStatistics> entry : statistics.get(fixtureClass).entrySet()) {
+            if (entry.getKey() != FixturePhase.TEST) {
+                total += entry.getValue().getTotalNanos();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return getReport();
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import org.junit.runner.Description;
+
+/**
+ * Receives the time taken by each {@link FixturePhase} of every {@link TestFixture}. Implementations are registered
+ * using {@link FixtureTimings#addListener(FixtureTimingListener)}, or listed in
+ * {@code META-INF/services/junit.rules.FixtureTimingListener} to be picked up by {@link java.util.ServiceLoader}.
+ * Listeners are called on the thread that ran the phase, so must be thread-safe.
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+public interface FixtureTimingListener {
+
+    /**
+     * @param fixtureClass
+     *        the class of the {@link TestFixture}
+     * @param description
+     *        the {@link Description} of the test or test class the fixture was applied to
+     * @param phase
+     *        the {@link FixturePhase}
+     * @param nanos
+     *        the time taken, in nanoseconds
+     */
+    void phaseCompleted(Class<? extends TestFixture> fixtureClass, Description description, FixturePhase phase,
+            long nanos);
+}
@@ -0,0 +1,111 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.runner.Description;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Publishes the time taken by each {@link FixturePhase} of every {@link TestFixture} to the registered
+ * {@link FixtureTimingListener}s.
+ * </p>
+ * <p>
+ * A {@link FixtureTimingAggregator} is always registered, and can be retrieved using {@link #getAggregator()}. Set the
+ * system property {@value #REPORT_PROPERTY} to {@code true} to have its report logged when the JVM shuts down.
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+public final class FixtureTimings {
+
+    /**
+     * {@value #REPORT_PROPERTY}
+     */
+    public static final String REPORT_PROPERTY = "junit.rules.timings.report";
+
+    private static final Logger logger = LoggerFactory.getLogger(FixtureTimings.class);
+
+    private static final FixtureTimingAggregator AGGREGATOR = new FixtureTimingAggregator();
+
+    private static final List<FixtureTimingListener> LISTENERS = new CopyOnWriteArrayList<FixtureTimingListener>();
+
+    static {
+        LISTENERS.add(AGGREGATOR);
+        for (final FixtureTimingListener listener : ServiceLoader.load(FixtureTimingListener.class)) {
+            LISTENERS.add(listener);
+        }
+        if (Boolean.getBoolean(REPORT_PROPERTY)) {
+            Runtime.getRuntime().addShutdownHook(new Thread("FixtureTimings report") {
+                @Override
+                public void run() {
+                    logger.info("Fixture timings:\n" + AGGREGATOR.getReport());
+                }
+            });
+        }
+    }
+
+    /**
+     * Utility classes should not have a public or default constructor.
+     */
+    private FixtureTimings() {
+        // noop
+    }
+
+    /**
+     * @return the default, in-memory {@link FixtureTimingAggregator}
+     */
+    public static FixtureTimingAggregator getAggregator() {
+        return AGGREGATOR;
+    }
+
+    /**
+     * @param listener
+     *        the {@link FixtureTimingListener} to add
+     */
+    public static void addListener(final FixtureTimingListener listener) {
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * @param listener
+     *        the {@link FixtureTimingListener} to remove
+     */
+    public static void removeListener(final FixtureTimingListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * @param fixture
+     *        the {@link TestFixture}
+     * @param description
+     *        the {@link Description}
+     * @param phase
+     *        the {@link FixturePhase}
+     * @param startNanos
+     *        the {@link System#nanoTime()} the phase started at
+     */
+    static void publish(final TestFixture fixture, final Description description, final FixturePhase phase,
+            final long startNanos) {
+        final long nanos = System.nanoTime() - startNanos;
+        for (final FixtureTimingListener listener : LISTENERS) {
+            try {
+                listener.phaseCompleted(fixture.getClass(), description, phase, nanos);
+            } catch (final RuntimeException e) {
+                logger.warn(e.getClass().getName() + " from " + listener.getClass().getName(), e);
+            }
+        }
+    }
+}
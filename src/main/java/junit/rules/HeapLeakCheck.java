@@ -0,0 +1,42 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a test method to be run repeatedly by {@link HeapLeakRule}, failing if the heap retained after each round grows
+ * steadily.
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+@Target({ ElementType.METHOD })
+@Retention(RUNTIME)
+public @interface HeapLeakCheck {
+
+    /**
+     * The number of measured rounds, at least 3
+     */
+    int rounds() default 10;
+
+    /**
+     * The number of rounds to run, and not measure, first (to load classes, fill caches, and so on)
+     */
+    int warmUp() default 2;
+
+    /**
+     * The most the retained heap may grow per round, in bytes
+     */
+    long maxBytesPerRound() default 64 * 1024;
+}
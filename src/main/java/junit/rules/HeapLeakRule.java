@@ -0,0 +1,216 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import static junit.framework.Assert.fail;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Catches slow heap leaks, and garbage collection during tests that must not pause.
+ * </p>
+ * <p>
+ * A {@link HeapLeakCheck} test method is run {@link HeapLeakCheck#warmUp()} + {@link HeapLeakCheck#rounds()} times.
+ * After each measured round, the garbage collector is run and the heap still in use is recorded. If the retained heap
+ * grows roughly linearly (a least squares fit with R<sup>2</sup> of at least {@value #MIN_R_SQUARED}) by more than
+ * {@link HeapLeakCheck#maxBytesPerRound()} per round, the test fails.
+ * </p>
+ * <p>
+ * A {@link NoGcPause} test method fails if any garbage collector ran while it did. To give it a fair chance, the
+ * garbage collector is run just before.
+ * </p>
+ *
+ * <pre>
+ * &#064;Rule
+ * public final HeapLeakRule heap = new HeapLeakRule();
+ *
+ * &#064;Test
+ * &#064;HeapLeakCheck(rounds = 20)
+ * public void testCacheIsBounded() {
+ * </pre>
+ * <p>
+ * Like {@link ExpectedExceptions}, this rule re-evaluates whatever it wraps, which with JUnit 4.9 includes the
+ * {@link org.junit.Before} and {@link org.junit.After} methods. Explicit garbage collection must not be disabled (
+ * {@code -XX:+DisableExplicitGC}).
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+public class HeapLeakRule implements TestRule {
+
+    /**
+     * {@value #MIN_R_SQUARED}
+     */
+    public static final double MIN_R_SQUARED = 0.8;
+
+    private static final int MIN_ROUNDS = 3;
+
+    private static final int GC_PASSES = 2;
+
+    private static final Logger logger = LoggerFactory.getLogger(HeapLeakRule.class);
+
+    private double bytesPerRound;
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.junit.rules.TestRule#apply(org.junit.runners.model.Statement, org.junit.runner.Description)
+     */
+    @Override
+    public final Statement apply(final Statement base, final Description description) {
+        final HeapLeakCheck leakCheck = description.getAnnotation(HeapLeakCheck.class);
+        final boolean noGcPause = description.getAnnotation(NoGcPause.class) != null;
+        if (leakCheck == null && !noGcPause) {
+            return base;
+        }
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                if (leakCheck == null) {
+                    evaluateOnce(base, description, noGcPause);
+                    return;
+                }
+                final int rounds = Math.max(MIN_ROUNDS, leakCheck.rounds());
+                final long[] retained = new long[rounds];
+                for (int i = -leakCheck.warmUp(); i < rounds; ++i) {
+                    evaluateOnce(base, description, noGcPause);
+                    if (i >= 0) {
+                        retained[i] = retainedHeap();
+                    }
+                }
+                checkGrowth(description, retained, leakCheck.maxBytesPerRound());
+            }
+        };
+    }
+
+    /**
+     * @param base
+     *        the {@link Statement} to evaluate
+     * @param description
+     *        the test {@link Description}
+     * @param noGcPause
+     *        {@code true} to fail if the garbage collector runs during the evaluation
+     * @throws Throwable
+     *         on exception
+     */
+    private static void evaluateOnce(final Statement base, final Description description, final boolean noGcPause)
+            throws Throwable {
+        if (!noGcPause) {
+            base.evaluate();
+            return;
+        }
+        collectGarbage();
+        final long before = collectionCount();
+        base.evaluate();
+        final long collections = collectionCount() - before;
+        if (collections > 0) {
+            fail(description.getDisplayName() + " paused for " + collections + " garbage collection(s)");
+        }
+    }
+
+    /**
+     * Fits a line to the retained heap, and fails if it grows steadily by more than allowed. Package-private for
+     * testing.
+     *
+     * @param description
+     *        the test {@link Description}
+     * @param retained
+     *        the heap retained after each round
+     * @param maxBytesPerRound
+     *        the most the heap may grow per round
+     */
+    final void checkGrowth(final Description description, final long[] retained, final long maxBytesPerRound) {
+        final int n = retained.length;
+        final double meanX = (n - 1) / 2.0;
+        double meanY = 0;
+        for (final long y : retained) {
+            meanY += (double) y / n;
+        }
+        double sxy = 0;
+        double sxx = 0;
+        double syy = 0;
+        for (int x = 0; x < n; ++x) {
+            final double dx = x - meanX;
+            final double dy = retained[x] - meanY;
+            sxy += dx * dy;
+            sxx += dx * dx;
+            syy += dy * dy;
+        }
+        bytesPerRound = sxy / sxx;
+        double rSquared = 0;
+        if (syy > 0) {
+            rSquared = sxy * sxy / (sxx * syy);
+        }
+        logger.debug(description.getDisplayName() + " retained heap grew " + Math.round(bytesPerRound)
+                + " bytes per round (R^2 = " + rSquared + ")");
+        if (bytesPerRound > maxBytesPerRound && rSquared >= MIN_R_SQUARED) {
+            fail(description.getDisplayName() + " retained heap grew " + Math.round(bytesPerRound)
+                    + " bytes per round over " + n + " rounds (R^2 = " + rSquared + "), at most " + maxBytesPerRound
+                    + " allowed");
+        }
+    }
+
+    /**
+     * @return the heap in use after garbage collection, in bytes
+     */
+    private static long retainedHeap() {
+        collectGarbage();
+        long used = 0;
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                final MemoryUsage usage = pool.getUsage();
+                used += usage.getUsed();
+            }
+        }
+        if (used > 0) {
+            return used;
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Runs the garbage collector, a couple of times so that objects freed by finalizers are collected too.
+     */
+    private static void collectGarbage() {
+        for (int i = 0; i < GC_PASSES; ++i) {
+            System.gc();
+            System.runFinalization();
+        }
+    }
+
+    /**
+     * @return the number of collections so far, by all garbage collectors
+     */
+    private static long collectionCount() {
+        long count = 0;
+        for (final GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * @return how much the retained heap grew per round in the last (or current) {@link HeapLeakCheck} test, in bytes
+     */
+    public final double getBytesPerRound() {
+        return bytesPerRound;
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 15, 2026
+ */
+package junit.rules;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import junit.rules.util.DaemonThreadFactory;
+
+/**
+ * Evicts idle fixtures from {@link FixturePool}s on a daemon thread, so that they're torn down once their idle timeout
+ * has passed even if nothing else is released.
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+final class IdleFixtureReaper {
+
+    private static final ScheduledExecutorService EXECUTOR = Executors
+            .newSingleThreadScheduledExecutor(new DaemonThreadFactory("FixturePool reaper"));
+
+    /**
+     * Utility classes should not have a public or default constructor.
+     */
+    private IdleFixtureReaper() {
+        // noop
+    }
+
+    /**
+     * @param pool
+     *        the {@link FixturePool} to check for idle fixtures
+     * @param delayNanos
+     *        when to check, in nanoseconds from now
+     * @return the scheduled check
+     */
+    static ScheduledFuture<?> schedule(final FixturePool pool, final long delayNanos) {
+        return EXECUTOR.schedule(new Runnable() {
+            @Override
+            public void run() {
+                pool.reap();
+            }
+        }, delayNanos, TimeUnit.NANOSECONDS);
+    }
+}
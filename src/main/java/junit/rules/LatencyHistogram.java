@@ -0,0 +1,220 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * A fixed-size, log-linear histogram of latencies in nanoseconds, after the HdrHistogram layout. Values below 256 ns
+ * are counted exactly, larger ones with a relative error below 1%. Values up to about 18 minutes are tracked, anything
+ * larger is counted as that. Memory use is fixed at about 35 KB, however many values are recorded.
+ * </p>
+ * <p>
+ * Not thread-safe. Concurrent recorders can count values per bucket themselves (see {@link #bucketOf(long)}), say in
+ * a {@link java.util.concurrent.atomic.AtomicLongArray}, and add the counts with {@link #recordBucket(int, long)} when
+ * they're done.
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+public final class LatencyHistogram {
+
+    /**
+     * {@value #SUB_BUCKETS}
+     */
+    static final int SUB_BUCKETS = 128;
+
+    private static final int SUB_BUCKET_BITS = 7;
+
+    private static final int MAX_BITS = 40;
+
+    private static final long MAX_VALUE = (1L << MAX_BITS) - 1;
+
+    private static final double PERCENT = 100.0;
+
+    private final long[] counts = new long[(MAX_BITS - SUB_BUCKET_BITS + 2) * SUB_BUCKETS];
+
+    private long totalCount;
+
+    private long totalNanos;
+
+    private long min = Long.MAX_VALUE;
+
+    private long max;
+
+    /**
+     * @param nanos
+     *        the latency to record, negative values are recorded as 0
+     */
+    public void record(final long nanos) {
+        final long value = Math.min(MAX_VALUE, Math.max(0, nanos));
+        ++counts[indexOf(value)];
+        ++totalCount;
+        totalNanos += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * @param nanos
+     *        a latency
+     * @return the bucket it's counted in, between 0 and {@link #getBucketCount()} (exclusive)
+     */
+    public static int bucketOf(final long nanos) {
+        return indexOf(Math.min(MAX_VALUE, Math.max(0, nanos)));
+    }
+
+    /**
+     * @return the number of buckets
+     */
+    public static int getBucketCount() {
+        return indexOf(MAX_VALUE) + 1;
+    }
+
+    /**
+     * Records values counted per bucket elsewhere. Each is recorded as the largest value in its bucket.
+     *
+     * @param bucket
+     *        the bucket, as returned by {@link #bucketOf(long)}
+     * @param count
+     *        the number of values counted in it
+     */
+    public void recordBucket(final int bucket, final long count) {
+        if (count <= 0) {
+            return;
+        }
+        final long value = highestValueAt(bucket);
+        counts[bucket] += count;
+        totalCount += count;
+        totalNanos += value * count;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * @param value
+     *        a value between 0 and {@link #MAX_VALUE}
+     * @return its index in {@link #counts}
+     */
+    static int indexOf(final long value) {
+        final int bucket = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return (bucket * SUB_BUCKETS) + (int) (value >>> bucket);
+    }
+
+    /**
+     * @param index
+     *        an index in {@link #counts}
+     * @return the largest value counted at that index
+     */
+    static long highestValueAt(final int index) {
+        final int bucket = Math.max(0, (index / SUB_BUCKETS) - 1);
+        final long subBucket = index - (bucket * SUB_BUCKETS);
+        return ((subBucket + 1) << bucket) - 1;
+    }
+
+    /**
+     * @param percentile
+     *        the percentile, between 0 and 100
+     * @return the latency, in nanoseconds, that the given percentage of recorded values are at or below, or {@code 0} if
+     *         nothing was recorded
+     */
+    public long getValueAtPercentile(final double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        final long target = Math.max(1, (long) Math.ceil(percentile / PERCENT * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; ++i) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(max, highestValueAt(i));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return the number of values recorded
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return the smallest value recorded, in nanoseconds, or {@code 0} if nothing was recorded
+     */
+    public long getMin() {
+        if (totalCount == 0) {
+            return 0;
+        }
+        return min;
+    }
+
+    /**
+     * @return the largest value recorded, in nanoseconds
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return the mean of the values recorded, in nanoseconds
+     */
+    public double getMean() {
+        if (totalCount == 0) {
+            return 0;
+        }
+        return (double) totalNanos / totalCount;
+    }
+
+    /**
+     * @return the number of values recorded per second of recorded time
+     */
+    public double getThroughput() {
+        if (totalNanos == 0) {
+            return 0;
+        }
+        return totalCount / (totalNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Forgets all values recorded so far.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        totalNanos = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return String.format("count=%d, %.1f ops/s, p50=%dus, p90=%dus, p99=%dus, p999=%dus, max=%dus", totalCount,
+                getThroughput(), micros(getValueAtPercentile(50)), micros(getValueAtPercentile(90)),
+                micros(getValueAtPercentile(99)), micros(getValueAtPercentile(99.9)), micros(max));
+    }
+
+    /**
+     * @param nanos
+     *        nanoseconds
+     * @return microseconds
+     */
+    private static long micros(final long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
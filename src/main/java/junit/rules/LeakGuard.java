@@ -0,0 +1,228 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.runner.Description;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Takes a {@link ResourceSnapshot} before the guarded fixture is set up and after it is torn down, and reports any
+ * threads, file descriptors, listening ports or direct buffer memory it left behind.
+ * </p>
+ *
+ * <pre>
+ * &#064;Rule
+ * public final LeakGuard jetty = new LeakGuard(new JettyServerRule());
+ * </pre>
+ * <p>
+ * Without a guarded fixture, a {@link LeakGuard} checks the test itself. Leaks are logged, with the fixture and test
+ * they were found after, and counted per fixture class (see {@link #getReport()}). Use {@link #setFailOnLeak(boolean)}
+ * to fail the test instead.
+ * </p>
+ * <p>
+ * Threads (say, Jetty acceptors) often take a moment to stop after tearDown(), so a leak is only reported if it's still
+ * there after the settle time (by default, {@value #DEFAULT_SETTLE_MILLIS} ms).
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+public final class LeakGuard extends TestFixture {
+
+    /**
+     * {@value #DEFAULT_SETTLE_MILLIS}
+     */
+    public static final long DEFAULT_SETTLE_MILLIS = 1000;
+
+    /**
+     * {@value #DEFAULT_DIRECT_MEMORY_TOLERANCE}
+     */
+    public static final long DEFAULT_DIRECT_MEMORY_TOLERANCE = 1024 * 1024;
+
+    private static final long POLL_MILLIS = 50;
+
+    private static final Logger logger = LoggerFactory.getLogger(LeakGuard.class);
+
+    private static final Map<String, Integer> LEAKS = new TreeMap<String, Integer>();
+
+    private final TestFixture fixture;
+
+    private long settleMillis = DEFAULT_SETTLE_MILLIS;
+
+    private long directMemoryTolerance = DEFAULT_DIRECT_MEMORY_TOLERANCE;
+
+    private boolean failOnLeak;
+
+    private Description description;
+
+    private ResourceSnapshot before;
+
+    /**
+     * Guards the test itself.
+     */
+    public LeakGuard() {
+        this(null);
+    }
+
+    /**
+     * @param fixture
+     *        the {@link TestFixture} to guard, or {@code null} to guard the test itself
+     */
+    public LeakGuard(final TestFixture fixture) {
+        this.fixture = fixture;
+    }
+
+    /**
+     * @return the guarded {@link TestFixture}, or {@code null} if guarding the test itself
+     */
+    public TestFixture getFixture() {
+        return fixture;
+    }
+
+    /**
+     * @param fail
+     *        {@code true} to fail the test when a leak is found, instead of only logging it
+     * @return this
+     */
+    public LeakGuard setFailOnLeak(final boolean fail) {
+        this.failOnLeak = fail;
+        return this;
+    }
+
+    /**
+     * @param settleTime
+     *        how long to wait for resources to be released after tearDown()
+     * @param unit
+     *        the time unit
+     * @return this
+     */
+    public LeakGuard setSettleTime(final long settleTime, final TimeUnit unit) {
+        this.settleMillis = unit.toMillis(settleTime);
+        return this;
+    }
+
+    /**
+     * @param bytes
+     *        direct buffer memory growth, in bytes, not to report
+     * @return this
+     */
+    public LeakGuard setDirectMemoryTolerance(final long bytes) {
+        this.directMemoryTolerance = bytes;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see junit.rules.TestFixture#inspect(org.junit.runner.Description)
+     */
+    @Override
+    protected void inspect(final Description testDescription) {
+        this.description = testDescription;
+        if (fixture != null) {
+            fixture.prepare(testDescription);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see junit.rules.TestFixture#setUp()
+     */
+    @Override
+    protected void setUp() throws Throwable {
+        before = ResourceSnapshot.take();
+        if (fixture != null) {
+            fixture.invokeSetUp();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see junit.rules.TestFixture#reset()
+     */
+    @Override
+    protected void reset() throws Throwable {
+        if (fixture != null) {
+            fixture.invokeReset();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see junit.rules.TestFixture#tearDown()
+     */
+    @Override
+    protected void tearDown() throws Throwable {
+        if (fixture != null) {
+            fixture.invokeTearDown();
+        }
+        final List<String> growth = awaitSettled();
+        if (growth.isEmpty()) {
+            return;
+        }
+        final String guarded = guardedName();
+        synchronized (LEAKS) {
+            final Integer count = LEAKS.get(guarded);
+            if (count == null) {
+                LEAKS.put(guarded, 1);
+            } else {
+                LEAKS.put(guarded, count + 1);
+            }
+        }
+        final String message = guarded + " leaked after " + description + ": " + growth;
+        if (failOnLeak) {
+            throw new AssertionError(message);
+        }
+        logger.warn(message);
+    }
+
+    /**
+     * @return the growth since setUp(), once it stops shrinking or the settle time is up
+     * @throws InterruptedException
+     *         if interrupted while waiting
+     */
+    private List<String> awaitSettled() throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settleMillis);
+        List<String> growth = ResourceSnapshot.take().growthSince(before, directMemoryTolerance);
+        while (!growth.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(POLL_MILLIS);
+            growth = ResourceSnapshot.take().growthSince(before, directMemoryTolerance);
+        }
+        return growth;
+    }
+
+    /**
+     * @return the name of the guarded fixture class, or of the test class if guarding the test itself
+     */
+    private String guardedName() {
+        if (fixture != null) {
+            return fixture.getClass().getName();
+        }
+        return String.valueOf(description.getClassName());
+    }
+
+    /**
+     * @return the number of leaks found so far, per guarded fixture (or test) class
+     */
+    public static Map<String, Integer> getReport() {
+        synchronized (LEAKS) {
+            return new TreeMap<String, Integer>(LEAKS);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The most time a test may take, enforced by {@link PerformanceBudget}. On a class, applies to every test method that
+ * doesn't have its own.
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RUNTIME)
+public @interface MaxDuration {
+
+    /**
+     * The budget
+     */
+    long value();
+
+    /**
+     * The time unit of the budget
+     */
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
+
+    /**
+     * Whether to measure CPU time on the test thread, rather than wall-clock time
+     */
+    boolean cpuTime() default false;
+}
@@ -0,0 +1,230 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import junit.rules.util.DaemonThreadFactory;
+
+import org.junit.runner.Runner;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.Suite;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerBuilder;
+import org.junit.runners.model.RunnerScheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * A drop-in replacement for {@link Suite} that runs its classes in parallel, except that two classes that use the same
+ * {@link ExclusiveResources} (say, the default HTTP port, or a Derby database) never run at the same time.
+ * </p>
+ *
+ * <pre>
+ * &#064;RunWith(ParallelSuite.class)
+ * &#064;SuiteClasses({ HttpServerRuleTest.class, JettyServerRuleTest.class, StubJndiContextTest.class })
+ * public class AllTests {
+ * }
+ * </pre>
+ * <p>
+ * Resources are read from the test classes, their {@link TestFixture} rule fields, and the fixture types. At most
+ * {@value #THREADS_PROPERTY} classes (by default, the number of available processors) run at a time, on as many
+ * threads. Classes are handed to a thread only once their resources are free, so a class waiting for a resource holds
+ * no thread, and classes after it that don't need that resource go ahead of it.
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+public final class ParallelSuite extends Suite {
+
+    /**
+     * {@value #THREADS_PROPERTY}
+     */
+    public static final String THREADS_PROPERTY = "junit.rules.parallel.threads";
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelSuite.class);
+
+    private final Map<Runner, Set<String>> resources = new HashMap<Runner, Set<String>>();
+
+    private final ExclusiveResourceLocks locks = new ExclusiveResourceLocks();
+
+    private final List<Child> pending = new LinkedList<Child>();
+
+    private final int threads;
+
+    private int running;
+
+    /**
+     * Called reflectively by JUnit.
+     *
+     * @param klass
+     *        the suite class
+     * @param builder
+     *        the {@link RunnerBuilder} for the suite classes
+     * @throws InitializationError
+     *         if the suite is malformed
+     */
+    public ParallelSuite(final Class<?> klass, final RunnerBuilder builder) throws InitializationError {
+        super(klass, builder);
+        threads = Math.max(1, Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors())
+                .intValue());
+        for (final Runner runner : getChildren()) {
+            final Set<String> needed = ExclusiveResourceLocks.resourcesOf(runner.getDescription());
+            resources.put(runner, needed);
+            logger.debug(runner.getDescription().getDisplayName() + " needs " + needed);
+        }
+        setScheduler(new ParallelScheduler());
+    }
+
+    /**
+     * Called by JUnit, through the {@link ParallelScheduler}, for each class to run. Only queues the class, which is
+     * run once there's a thread for it and its resources are free.
+     *
+     * @param runner
+     *        the class's {@link Runner}
+     * @param notifier
+     *        the {@link RunNotifier}
+     * @see org.junit.runners.Suite#runChild(org.junit.runner.Runner, org.junit.runner.notification.RunNotifier)
+     */
+    @Override
+    protected void runChild(final Runner runner, final RunNotifier notifier) {
+        synchronized (pending) {
+            pending.add(new Child(runner, notifier));
+        }
+    }
+
+    /**
+     * Hands queued classes to the executor, in order, as threads and their resources become free, until all have run.
+     *
+     * @param executor
+     *        the executor to run classes on
+     * @throws InterruptedException
+     *         if interrupted while waiting
+     */
+    private void dispatch(final ExecutorService executor) throws InterruptedException {
+        synchronized (pending) {
+            while (!pending.isEmpty() || running > 0) {
+                final Iterator<Child> it = pending.iterator();
+                while (running < threads && it.hasNext()) {
+                    final Child child = it.next();
+                    if (locks.tryAcquire(child.needed)) {
+                        it.remove();
+                        ++running;
+                        executor.execute(child);
+                    }
+                }
+                pending.wait();
+            }
+        }
+    }
+
+    /**
+     * Marks the classes that never got to run as ignored.
+     */
+    private void ignorePending() {
+        synchronized (pending) {
+            for (final Child child : pending) {
+                child.notifier.fireTestIgnored(child.runner.getDescription());
+            }
+            pending.clear();
+        }
+    }
+
+    /**
+     * A queued class.
+     */
+    private final class Child implements Runnable {
+
+        private final Runner runner;
+
+        private final RunNotifier notifier;
+
+        private final Set<String> needed;
+
+        /**
+         * @param runner
+         *        the class's {@link Runner}
+         * @param notifier
+         *        the {@link RunNotifier}
+         */
+        Child(final Runner runner, final RunNotifier notifier) {
+            this.runner = runner;
+            this.notifier = notifier;
+            this.needed = resources.get(runner);
+        }
+
+        /**
+         * Runs the class, then frees its thread and resources for the next.
+         *
+         * @see java.lang.Runnable#run()
+         */
+        @Override
+        public void run() {
+            try {
+                ParallelSuite.super.runChild(runner, notifier);
+            } finally {
+                locks.release(needed);
+                synchronized (pending) {
+                    --running;
+                    pending.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues each child as JUnit schedules it, then runs them all on a fixed pool of daemon threads, and waits for them
+     * to finish.
+     */
+    private final class ParallelScheduler implements RunnerScheduler {
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.junit.runners.model.RunnerScheduler#schedule(java.lang.Runnable)
+         */
+        @Override
+        public void schedule(final Runnable childStatement) {
+            // calls runChild(), which only queues the child
+            childStatement.run();
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see org.junit.runners.model.RunnerScheduler#finished()
+         */
+        @Override
+        public void finished() {
+            final ExecutorService executor = Executors.newFixedThreadPool(threads, new DaemonThreadFactory(
+                    "ParallelSuite"));
+            try {
+                dispatch(executor);
+                executor.shutdown();
+                while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    logger.debug("Waiting for test classes to finish");
+                }
+            } catch (final InterruptedException e) {
+                executor.shutdownNow();
+                ignorePending();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import static junit.framework.Assert.fail;
+
+import java.lang.annotation.Annotation;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Fails a test that passes, but takes longer than its {@link MaxDuration} or allocates more than its
+ * {@link MaxAllocatedBytes} on the test thread.
+ * </p>
+ *
+ * <pre>
+ * &#064;Rule
+ * public final PerformanceBudget budget = new PerformanceBudget();
+ *
+ * &#064;Test
+ * &#064;MaxDuration(50)
+ * &#064;MaxAllocatedBytes(1024 * 1024)
+ * public void testFindByName() {
+ * </pre>
+ * <p>
+ * Budgets can be adjusted for slower (or faster) hardware without touching the tests:
+ * </p>
+ * <ul>
+ * <li>{@value #TIME_SCALE_PROPERTY} multiplies every {@link MaxDuration}, for example {@code 2.5} on a slow CI agent</li>
+ * <li>{@value #ALLOCATION_SCALE_PROPERTY} multiplies every {@link MaxAllocatedBytes}</li>
+ * <li>{@value #PREFIX}<i>TestClass</i>.<i>method</i>{@value #MAX_DURATION_SUFFIX} and
+ * {@value #PREFIX}<i>TestClass</i>.<i>method</i>{@value #MAX_ALLOCATED_BYTES_SUFFIX} override the budgets of one test,
+ * the test class being the fully qualified name</li>
+ * </ul>
+ * <p>
+ * Allocation is only measured on JVMs that provide {@code com.sun.management.ThreadMXBean}, elsewhere the budget is
+ * not enforced.
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+public class PerformanceBudget implements TestRule {
+
+    /**
+     * {@value #PREFIX}
+     */
+    public static final String PREFIX = "junit.rules.budget.";
+
+    /**
+     * {@value #TIME_SCALE_PROPERTY}
+     */
+    public static final String TIME_SCALE_PROPERTY = PREFIX + "timeScale";
+
+    /**
+     * {@value #ALLOCATION_SCALE_PROPERTY}
+     */
+    public static final String ALLOCATION_SCALE_PROPERTY = PREFIX + "allocationScale";
+
+    /**
+     * {@value #MAX_DURATION_SUFFIX}, in milliseconds
+     */
+    public static final String MAX_DURATION_SUFFIX = ".maxDurationMillis";
+
+    /**
+     * {@value #MAX_ALLOCATED_BYTES_SUFFIX}
+     */
+    public static final String MAX_ALLOCATED_BYTES_SUFFIX = ".maxAllocatedBytes";
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceBudget.class);
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.junit.rules.TestRule#apply(org.junit.runners.model.Statement, org.junit.runner.Description)
+     */
+    @Override
+    public final Statement apply(final Statement base, final Description description) {
+        final MaxDuration maxDuration = find(description, MaxDuration.class);
+        final MaxAllocatedBytes maxAllocatedBytes = find(description, MaxAllocatedBytes.class);
+        if (maxDuration == null && maxAllocatedBytes == null) {
+            return base;
+        }
+        final String key = PREFIX + description.getClassName() + "." + description.getMethodName();
+        final long maxNanos = durationBudget(maxDuration, key);
+        final long maxBytes = allocationBudget(maxAllocatedBytes, key);
+        final boolean cpuTime = maxDuration != null && maxDuration.cpuTime();
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                final long startBytes = ThreadMetrics.currentThreadAllocatedBytes();
+                final long start = now(cpuTime);
+                base.evaluate();
+                final long nanos = now(cpuTime) - start;
+                final long bytes = ThreadMetrics.currentThreadAllocatedBytes() - startBytes;
+                if (maxNanos >= 0 && nanos > maxNanos) {
+                    fail(description.getDisplayName() + " took " + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms"
+                            + clockName(cpuTime) + ", budget is " + TimeUnit.NANOSECONDS.toMillis(maxNanos) + " ms");
+                }
+                if (maxBytes >= 0 && startBytes >= 0 && bytes > maxBytes) {
+                    fail(description.getDisplayName() + " allocated " + bytes + " bytes, budget is " + maxBytes
+                            + " bytes");
+                }
+            }
+        };
+    }
+
+    /**
+     * @param cpuTime
+     *        whether to read CPU time, rather than wall-clock time
+     * @return the current time, in nanoseconds
+     */
+    private static long now(final boolean cpuTime) {
+        if (cpuTime) {
+            return ThreadMetrics.currentThreadCpuTime();
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * @param cpuTime
+     *        whether CPU time was measured
+     * @return a suffix naming the clock, for messages
+     */
+    private static String clockName(final boolean cpuTime) {
+        if (cpuTime) {
+            return " of CPU time";
+        }
+        return "";
+    }
+
+    /**
+     * @param maxDuration
+     *        the {@link MaxDuration}, may be {@code null}
+     * @param key
+     *        the system property prefix for this test
+     * @return the duration budget in nanoseconds, or {@code -1} for none
+     */
+    private static long durationBudget(final MaxDuration maxDuration, final String key) {
+        final String override = System.getProperty(key + MAX_DURATION_SUFFIX);
+        if (override != null) {
+            return TimeUnit.MILLISECONDS.toNanos(Long.parseLong(override));
+        }
+        if (maxDuration == null) {
+            return -1;
+        }
+        if (maxDuration.cpuTime() && ThreadMetrics.currentThreadCpuTime() < 0) {
+            logger.warn("Thread CPU time not supported, not enforcing " + maxDuration);
+            return -1;
+        }
+        return (long) (maxDuration.unit().toNanos(maxDuration.value()) * scale(TIME_SCALE_PROPERTY));
+    }
+
+    /**
+     * @param maxAllocatedBytes
+     *        the {@link MaxAllocatedBytes}, may be {@code null}
+     * @param key
+     *        the system property prefix for this test
+     * @return the allocation budget in bytes, or {@code -1} for none
+     */
+    private static long allocationBudget(final MaxAllocatedBytes maxAllocatedBytes, final String key) {
+        final String override = System.getProperty(key + MAX_ALLOCATED_BYTES_SUFFIX);
+        if (override != null) {
+            return Long.parseLong(override);
+        }
+        if (maxAllocatedBytes == null) {
+            return -1;
+        }
+        return (long) (maxAllocatedBytes.value() * scale(ALLOCATION_SCALE_PROPERTY));
+    }
+
+    /**
+     * @param property
+     *        the scale system property
+     * @return the scale factor, {@code 1.0} if not set
+     */
+    private static double scale(final String property) {
+        return Double.parseDouble(System.getProperty(property, "1.0"));
+    }
+
+    /**
+     * @param <A>
+     *        the annotation type
+     * @param description
+     *        the test {@link Description}
+     * @param annotationType
+     *        the annotation type
+     * @return the annotation on the test method, else on the test class, else {@code null}
+     */
+    private static <A extends Annotation> A find(final Description description, final Class<A> annotationType) {
+        final Class<?> testClass = description.getTestClass();
+        if (testClass == null || description.getMethodName() == null) {
+            return null;
+        }
+        final A annotation = description.getAnnotation(annotationType);
+        if (annotation != null) {
+            return annotation;
+        }
+        return testClass.getAnnotation(annotationType);
+    }
+}
@@ -0,0 +1,204 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * <p>
+ * A snapshot of the process resources that fixtures tend to leak: live threads, open file descriptors, listening TCP
+ * ports and direct buffer memory.
+ * </p>
+ * <p>
+ * File descriptors and listening ports are read from {@code /proc}, and so are only available on Linux. Listening
+ * ports are those of the current network namespace, which for a forked test JVM is usually close enough. Direct buffer
+ * memory is read from the {@code java.lang.management.BufferPoolMXBean} where available (Java 7 and later).
+ * Unavailable values are reported as {@code -1}, and never count as growth.
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+public final class ResourceSnapshot {
+
+    private static final String TCP_LISTEN = "0A";
+
+    private static final int RADIX_HEX = 16;
+
+    private final Map<Long, String> threads = new TreeMap<Long, String>();
+
+    private final Set<Integer> listeningPorts = new TreeSet<Integer>();
+
+    private final int openFileDescriptors;
+
+    private final long directMemoryUsed;
+
+    /**
+     * Use {@link #take()}.
+     */
+    private ResourceSnapshot() {
+        for (final Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.isAlive()) {
+                threads.put(thread.getId(), thread.getName());
+            }
+        }
+        final String[] fds = new File("/proc/self/fd").list();
+        if (fds == null) {
+            openFileDescriptors = -1;
+        } else {
+            openFileDescriptors = fds.length;
+        }
+        readListeningPorts("/proc/net/tcp");
+        readListeningPorts("/proc/net/tcp6");
+        directMemoryUsed = readDirectMemoryUsed();
+    }
+
+    /**
+     * @return a snapshot of the current process resources
+     */
+    public static ResourceSnapshot take() {
+        return new ResourceSnapshot();
+    }
+
+    /**
+     * @param path
+     *        {@code /proc/net/tcp} or {@code /proc/net/tcp6}
+     */
+    private void readListeningPorts(final String path) {
+        try {
+            final BufferedReader reader = new BufferedReader(new FileReader(path));
+            try {
+                // skip the header
+                String line = reader.readLine();
+                while (line != null) {
+                    line = reader.readLine();
+                    addListeningPort(line);
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (final IOException e) {
+            // not on Linux, or no IPv6
+            return;
+        }
+    }
+
+    /**
+     * @param line
+     *        a line from {@code /proc/net/tcp}, may be {@code null}
+     */
+    private void addListeningPort(final String line) {
+        if (line == null) {
+            return;
+        }
+        // sl local_address rem_address st ...
+        final String[] fields = line.trim().split("\\s+");
+        if (fields.length > 3 && TCP_LISTEN.equals(fields[3])) {
+            final String localAddress = fields[1];
+            listeningPorts.add(Integer.valueOf(localAddress.substring(localAddress.indexOf(':') + 1), RADIX_HEX));
+        }
+    }
+
+    /**
+     * @return the direct buffer memory in use, or {@code -1} if unavailable
+     */
+    private static long readDirectMemoryUsed() {
+        try {
+            final Class<?> beanClass = Class.forName("java.lang.management.BufferPoolMXBean");
+            final Method getPlatformMXBeans = ManagementFactory.class.getMethod("getPlatformMXBeans", Class.class);
+            for (final Object bean : (List<?>) getPlatformMXBeans.invoke(null, beanClass)) {
+                if ("direct".equals(beanClass.getMethod("getName").invoke(bean))) {
+                    return ((Long) beanClass.getMethod("getMemoryUsed").invoke(bean)).longValue();
+                }
+            }
+        } catch (final Exception e) {
+            // Java 6
+            return -1;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the live threads, by id
+     */
+    public Map<Long, String> getThreads() {
+        return threads;
+    }
+
+    /**
+     * @return the number of open file descriptors, or {@code -1} if unavailable
+     */
+    public int getOpenFileDescriptors() {
+        return openFileDescriptors;
+    }
+
+    /**
+     * @return the listening TCP ports
+     */
+    public Set<Integer> getListeningPorts() {
+        return listeningPorts;
+    }
+
+    /**
+     * @return the direct buffer memory in use, in bytes, or {@code -1} if unavailable
+     */
+    public long getDirectMemoryUsed() {
+        return directMemoryUsed;
+    }
+
+    /**
+     * @param before
+     *        an earlier snapshot
+     * @param directMemoryTolerance
+     *        direct memory growth, in bytes, not to report
+     * @return a description of each resource that grew since the earlier snapshot, empty if none did
+     */
+    public List<String> growthSince(final ResourceSnapshot before, final long directMemoryTolerance) {
+        final List<String> growth = new ArrayList<String>();
+        final Map<Long, String> newThreads = new TreeMap<Long, String>(threads);
+        newThreads.keySet().removeAll(before.threads.keySet());
+        if (!newThreads.isEmpty()) {
+            growth.add(newThreads.size() + " new thread(s) " + newThreads.values());
+        }
+        if (before.openFileDescriptors >= 0 && openFileDescriptors > before.openFileDescriptors) {
+            growth.add((openFileDescriptors - before.openFileDescriptors) + " new file descriptor(s)");
+        }
+        final Set<Integer> newPorts = new TreeSet<Integer>(listeningPorts);
+        newPorts.removeAll(before.listeningPorts);
+        if (!newPorts.isEmpty()) {
+            growth.add("new listening port(s) " + newPorts);
+        }
+        if (before.directMemoryUsed >= 0 && directMemoryUsed - before.directMemoryUsed > directMemoryTolerance) {
+            growth.add((directMemoryUsed - before.directMemoryUsed) + " more bytes of direct buffer memory");
+        }
+        return growth;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return threads.size() + " threads, " + openFileDescriptors + " fds, listening on " + listeningPorts + ", "
+                + directMemoryUsed + " bytes direct memory";
+    }
+}
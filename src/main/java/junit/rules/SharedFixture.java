@@ -0,0 +1,88 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import java.util.concurrent.Callable;
+
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * A rule that acquires a {@link TestFixture} from a {@link FixturePool} for the duration of a test (or, as a
+ * {@link org.junit.ClassRule}, of a test class), and releases it afterwards without tearing it down.
+ *
+ * @param <T>
+ *        the fixture type
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+public final class SharedFixture<T extends TestFixture> implements TestRule {
+
+    private final FixturePool pool;
+
+    private final Object key;
+
+    private final Callable<T> factory;
+
+    private volatile T fixture;
+
+    /**
+     * @param pool
+     *        the {@link FixturePool}
+     * @param key
+     *        the fixture key
+     * @param factory
+     *        builds the fixture if none is pooled under the key
+     */
+    SharedFixture(final FixturePool pool, final Object key, final Callable<T> factory) {
+        this.pool = pool;
+        this.key = key;
+        this.factory = factory;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see org.junit.rules.TestRule#apply(org.junit.runners.model.Statement, org.junit.runner.Description)
+     */
+    @Override
+    public Statement apply(final Statement base, final Description description) {
+        return new Statement() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public void evaluate() throws Throwable {
+                fixture = (T) pool.acquire(key, factory, description);
+                try {
+                    base.evaluate();
+                } finally {
+                    pool.release(key);
+                }
+            }
+        };
+    }
+
+    /**
+     * @return the shared fixture. Throws {@link IllegalStateException} if the fixture hasn't been acquired yet.
+     */
+    public T get() {
+        final T acquired = fixture;
+        if (acquired == null) {
+            throw new IllegalStateException("Shared fixture " + key + " has not been acquired yet!");
+        }
+        return acquired;
+    }
+
+    /**
+     * @return the fixture key
+     */
+    public Object getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+/**
+ * <p>
+ * Optionally implemented by a {@link TestFixture} whose state can be captured and put back far more cheaply than the
+ * fixture can be torn down and set up again.
+ * </p>
+ * <p>
+ * A {@link Snapshottable} fixture used as a {@link org.junit.ClassRule} is snapshot right after
+ * {@link TestFixture#setUp()}. Any {@link Snapshottable} fixture is restored right after every
+ * {@link TestFixture#reset()}. Together with {@link TestFixture#resetAfterEachTest()}, every test then starts from the
+ * same state, without the fixture being rebuilt. Call {@link #snapshot()} yourself to capture state built up after
+ * setUp(), say, in a {@link org.junit.BeforeClass} method, or for fixtures that aren't class rules.
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+public interface Snapshottable {
+
+    /**
+     * Captures the current state of the fixture, replacing any earlier snapshot.
+     *
+     * @throws Exception
+     *         if the state could not be captured
+     */
+    void snapshot() throws Exception;
+
+    /**
+     * Puts back the state captured by the last {@link #snapshot()}.
+     *
+     * @throws Exception
+     *         if the state could not be restored
+     */
+    void restore() throws Exception;
+}
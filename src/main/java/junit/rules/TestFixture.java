@@ -8,15 +8,98 @@
  */
 package junit.rules;
 
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.rules.TestRule;
 import org.junit.runner.Description;
 import org.junit.runners.model.Statement;
 
 /**
+ * <p>
+ * Base class for rules that set up an external resource before a test and tear it down afterwards.
+ * </p>
+ * <p>
+ * Used as a {@link org.junit.Rule}, a fixture is set up and torn down around each test method. Used as a
+ * {@link org.junit.ClassRule}, it is set up once before the first test of the class and torn down after the last. In
+ * that case, a companion rule obtained through {@link #resetAfterEachTest()} can be used to call the (cheaper)
+ * {@link #reset()} hook after every test:
+ * </p>
+ *
+ * <pre>
+ * &#064;ClassRule
+ * public static final DerbyDataSourceRule DERBY = new DerbyDataSourceRule(&quot;test&quot;);
+ *
+ * &#064;Rule
+ * public final TestRule reset = DERBY.resetAfterEachTest();
+ * </pre>
+ * <p>
+ * The time taken by each {@link FixturePhase} is published to any registered {@link FixtureTimingListener}s, see
+ * {@link FixtureTimings}.
+ * </p>
+ * <p>
+ * A fixture whose resource isn't needed by any later test can hand its {@link #tearDown()} to
+ * {@link BackgroundTearDown}, see {@link #setTearDownInBackground(boolean)}.
+ * </p>
+ * <p>
+ * A fixture can also be made lazy using {@link #setLazy(boolean)}, in which case {@link #setUp()} is deferred until the
+ * first call to {@link #activate()}, and {@link #tearDown()} is skipped if that never happens.
+ * </p>
+ * <p>
+ * Deadlines for {@link #setUp()} and {@link #tearDown()} can be set using {@link FixtureTimeout}, the
+ * {@link #TestFixture(long, long, TimeUnit)} constructor or {@link #setTimeouts(long, long, TimeUnit)}. A fixture with a
+ * deadline runs those methods on a separate thread, which is interrupted if the deadline is missed.
+ * </p>
+ * <p>
+ * Fixtures whose state can be captured and put back cheaply can implement {@link Snapshottable}, so that
+ * {@link #resetAfterEachTest()} returns them to their state right after setUp().
+ * </p>
+ *
  * @author Alistair A. Israel
  */
 public class TestFixture implements TestRule {
 
+    private boolean classScoped;
+
+    private boolean tearDownInBackground;
+
+    private volatile Future<?> pendingTearDown;
+
+    private boolean lazy;
+
+    private Object configurationKey;
+
+    private volatile boolean activated;
+
+    private Description lazyDescription;
+
+    private long setUpTimeoutMillis;
+
+    private long tearDownTimeoutMillis;
+
+    /**
+     * Creates a fixture with the deadlines given by its {@link FixtureTimeout} annotation, if any.
+     */
+    public TestFixture() {
+        final FixtureTimeout timeout = getClass().getAnnotation(FixtureTimeout.class);
+        if (timeout != null) {
+            setTimeouts(timeout.setUp(), timeout.tearDown(), timeout.unit());
+        }
+    }
+
+    /**
+     * @param setUpTimeout
+     *        the setUp() deadline, {@code 0} for none
+     * @param tearDownTimeout
+     *        the tearDown() deadline, {@code 0} for none
+     * @param unit
+     *        the time unit of the deadlines
+     * @since 0.6
+     */
+    protected TestFixture(final long setUpTimeout, final long tearDownTimeout, final TimeUnit unit) {
+        setTimeouts(setUpTimeout, tearDownTimeout, unit);
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -25,22 +108,339 @@ public class TestFixture implements TestRule {
      */
     @Override
     public final Statement apply(final Statement base, final Description description) {
-        inspect(description);
+        final long inspectStart = System.nanoTime();
+        prepare(description);
+        FixtureTimings.publish(this, description, FixturePhase.INSPECT, inspectStart);
         return new Statement() {
             @Override
             public void evaluate() throws Throwable {
-                setUp();
+                awaitPendingTearDown();
+                BackgroundTearDown.rethrowFailures(TestFixture.this);
+                if (lazy) {
+                    defer(description);
+                } else {
+                    timedSetUp(description);
+                }
+                final long testStart = System.nanoTime();
                 try {
                     base.evaluate();
                 } finally {
-                    tearDown();
+                    FixtureTimings.publish(TestFixture.this, description, FixturePhase.TEST, testStart);
+                    finish(description);
                 }
             }
         };
     }
 
+    /**
+     * Tears this fixture down, either right away or, if {@link #setTearDownInBackground(boolean)} was set, in the
+     * background.
+     *
+     * @param description
+     *        the {@link Description}
+     * @throws Throwable
+     *         if a foreground teardown fails
+     */
+    private void finish(final Description description) throws Throwable {
+        if (lazy && !deactivate()) {
+            return;
+        }
+        if (tearDownInBackground) {
+            pendingTearDown = BackgroundTearDown.submit(this, description);
+            return;
+        }
+        final long tearDownStart = System.nanoTime();
+        try {
+            invokeTearDown();
+        } finally {
+            FixtureTimings.publish(this, description, FixturePhase.TEAR_DOWN, tearDownStart);
+        }
+    }
+
+    /**
+     * Calls {@link #setUp()} and publishes the time it took.
+     *
+     * @param description
+     *        the {@link Description}
+     * @throws Throwable
+     *         if setup fails
+     */
+    private void timedSetUp(final Description description) throws Throwable {
+        final long setUpStart = System.nanoTime();
+        try {
+            invokeSetUp();
+        } finally {
+            FixtureTimings.publish(this, description, FixturePhase.SET_UP, setUpStart);
+        }
+    }
+
+    /**
+     * Arms a lazy fixture, so that the next call to {@link #activate()} sets it up.
+     *
+     * @param description
+     *        the {@link Description}
+     */
+    final synchronized void defer(final Description description) {
+        lazyDescription = description;
+        activated = false;
+    }
+
+    /**
+     * Disarms a lazy fixture.
+     *
+     * @return {@code true} if the fixture had been activated, and so needs to be torn down
+     */
+    final synchronized boolean deactivate() {
+        final boolean wasActivated = activated;
+        lazyDescription = null;
+        activated = false;
+        return wasActivated;
+    }
+
+    /**
+     * Sets up a lazy fixture, if it hasn't been set up yet. Subclasses should call this from every method that needs the
+     * resource, for example {@link javax.sql.DataSource#getConnection()}. Does nothing if this fixture isn't lazy, or
+     * is not currently applied to a test.
+     *
+     * @since 0.6
+     */
+    protected final void activate() {
+        if (!lazy || activated) {
+            return;
+        }
+        synchronized (this) {
+            if (lazyDescription == null || activated) {
+                return;
+            }
+            try {
+                timedSetUp(lazyDescription);
+            } catch (final RuntimeException e) {
+                throw e;
+            } catch (final Error e) {
+                throw e;
+            } catch (final Throwable t) {
+                throw new IllegalStateException("Lazy setUp() of " + getClass().getName() + " failed: " + t, t);
+            }
+            activated = true;
+        }
+    }
+
+    /**
+     * @return {@code true} if this is a lazy fixture that hasn't been set up
+     */
+    final boolean isDormant() {
+        return lazy && !activated;
+    }
+
+    /**
+     * Opt in to (or out of) lazy activation. A lazy fixture is only set up on first use, that is, when a subclass
+     * calls {@link #activate()}, and is only torn down (or reset) if it was set up.
+     *
+     * @param lazy
+     *        {@code true} to defer {@link #setUp()} until first use
+     * @since 0.6
+     */
+    public final void setLazy(final boolean lazy) {
+        this.lazy = lazy;
+    }
+
+    /**
+     * @return {@code true} if this fixture defers {@link #setUp()} until first use
+     * @since 0.6
+     */
+    public final boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * Calls {@link #setUp()}, within its deadline if any, then takes a {@link Snapshottable#snapshot()} if this is a
+     * class-scoped {@link Snapshottable} fixture.
+     *
+     * @throws Throwable
+     *         if setup fails, or {@link FixtureTimeoutException} if it misses its deadline
+     */
+    final void invokeSetUp() throws Throwable {
+        FixtureDeadline.run(this, "setUp", setUpTimeoutMillis, new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                setUp();
+                if (classScoped && TestFixture.this instanceof Snapshottable) {
+                    ((Snapshottable) TestFixture.this).snapshot();
+                }
+            }
+        });
+    }
+
+    /**
+     * Calls {@link #reset()}, then {@link Snapshottable#restore()} if this fixture is {@link Snapshottable}.
+     *
+     * @throws Throwable
+     *         if reset or restore fails
+     */
+    final void invokeReset() throws Throwable {
+        reset();
+        if (this instanceof Snapshottable) {
+            ((Snapshottable) this).restore();
+        }
+    }
+
+    /**
+     * Calls {@link #tearDown()}, within its deadline if any.
+     *
+     * @throws Throwable
+     *         if teardown fails, or {@link FixtureTimeoutException} if it misses its deadline
+     */
+    final void invokeTearDown() throws Throwable {
+        FixtureDeadline.run(this, "tearDown", tearDownTimeoutMillis, new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                tearDown();
+            }
+        });
+    }
+
+    /**
+     * Sets the deadlines for {@link #setUp()} and {@link #tearDown()}, overriding any {@link FixtureTimeout}.
+     *
+     * @param setUpTimeout
+     *        the setUp() deadline, {@code 0} for none
+     * @param tearDownTimeout
+     *        the tearDown() deadline, {@code 0} for none
+     * @param unit
+     *        the time unit of the deadlines
+     * @since 0.6
+     */
+    public final void setTimeouts(final long setUpTimeout, final long tearDownTimeout, final TimeUnit unit) {
+        this.setUpTimeoutMillis = unit.toMillis(setUpTimeout);
+        this.tearDownTimeoutMillis = unit.toMillis(tearDownTimeout);
+    }
+
+    /**
+     * Waits for a background teardown of this same fixture, if any, so it never overlaps the next setUp().
+     *
+     * @throws InterruptedException
+     *         if interrupted while waiting
+     */
+    private void awaitPendingTearDown() throws InterruptedException {
+        final Future<?> pending = pendingTearDown;
+        if (pending != null) {
+            BackgroundTearDown.waitFor(pending);
+            pendingTearDown = null;
+        }
+    }
+
+    /**
+     * Opt in to (or out of) tearing this fixture down on a background thread, so the next test doesn't have to wait for
+     * it. Only use this for resources no later test needs, for example not for a server bound to a fixed port that the
+     * next test binds again. Failures are reported the next time this fixture is applied, or by
+     * {@link BackgroundTearDown#await()}, see {@link BackgroundTearDown#barrier()}.
+     *
+     * @param tearDownInBackground
+     *        {@code true} to tear down in the background
+     * @since 0.6
+     */
+    public final void setTearDownInBackground(final boolean tearDownInBackground) {
+        this.tearDownInBackground = tearDownInBackground;
+    }
+
+    /**
+     * @return {@code true} if this fixture is torn down in the background
+     * @since 0.6
+     */
+    public final boolean isTearDownInBackground() {
+        return tearDownInBackground;
+    }
+
+    /**
+     * Records whether this fixture applies to a test class or a single test, then calls {@link #inspect(Description)}.
+     *
+     * @param description
+     *        the {@link Description}
+     */
+    final void prepare(final Description description) {
+        classScoped = description.getMethodName() == null;
+        inspect(description);
+    }
+
+    /**
+     * Returns a rule that calls {@link #reset()} after each test. Meant to be declared as a {@link org.junit.Rule}
+     * alongside this fixture when it is used as a {@link org.junit.ClassRule}.
+     *
+     * @return a {@link TestRule} that calls {@link #reset()} after each test
+     * @since 0.6
+     */
+    public final TestRule resetAfterEachTest() {
+        return new TestRule() {
+            @Override
+            public Statement apply(final Statement base, final Description description) {
+                return new Statement() {
+                    @Override
+                    public void evaluate() throws Throwable {
+                        try {
+                            base.evaluate();
+                        } finally {
+                            timedReset(description);
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Calls {@link #reset()}, unless this is a lazy fixture that was never activated, and publishes the time it took.
+     *
+     * @param description
+     *        the {@link Description}
+     * @throws Throwable
+     *         if reset fails
+     */
+    private void timedReset(final Description description) throws Throwable {
+        if (isDormant()) {
+            return;
+        }
+        final long resetStart = System.nanoTime();
+        try {
+            invokeReset();
+        } finally {
+            FixtureTimings.publish(this, description, FixturePhase.RESET, resetStart);
+        }
+    }
+
+    /**
+     * Tells apart fixtures of the same type that are configured differently, for example by database name or template.
+     * {@link FixtureAffinitySuite} only groups test classes whose static fixture rules have equal keys.
+     *
+     * @param configurationKey
+     *        what distinguishes this fixture's configuration, or {@code null} if fixtures of this type are all alike
+     * @since 0.6
+     */
+    public final void setConfigurationKey(final Object configurationKey) {
+        this.configurationKey = configurationKey;
+    }
+
+    /**
+     * @return what distinguishes this fixture's configuration, or {@code null} (the default) if fixtures of this type
+     *         are all alike
+     * @since 0.6
+     */
+    public final Object getConfigurationKey() {
+        return configurationKey;
+    }
+
+    /**
+     * @return {@code true} if this fixture was last applied to a test class (as a {@link org.junit.ClassRule}) rather
+     *         than to a single test method
+     * @since 0.6
+     */
+    protected final boolean isClassScoped() {
+        return classScoped;
+    }
+
     /**
      * Override to perform any reflection/introspection on the target test instance before setUp() / tearDown().
+     * When used as a {@link org.junit.ClassRule}, the {@link Description} is that of the test class, and
+     * {@link Description#getMethodName()} returns {@code null}.
      *
      * @param description the {@link Description}
      */
@@ -56,6 +456,17 @@ public class TestFixture implements TestRule {
     protected void setUp() throws Throwable {
     }
 
+    /**
+     * Override to clear any per-test state without tearing down the whole resource. Only called through the rule
+     * returned by {@link #resetAfterEachTest()}.
+     *
+     * @throws Throwable
+     *         if reset fails
+     * @since 0.6
+     */
+    protected void reset() throws Throwable {
+    }
+
     /**
      * Override to tear down your specific external resource.
      *
@@ -0,0 +1,84 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+/**
+ * Per-thread CPU time and heap allocation, where the JVM supports measuring them. Allocation is read from
+ * {@code com.sun.management.ThreadMXBean}, through reflection so that other JVMs still load this class.
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+final class ThreadMetrics {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static final Method GET_THREAD_ALLOCATED_BYTES = findGetThreadAllocatedBytes();
+
+    /**
+     * Utility classes should not have a public or default constructor.
+     */
+    private ThreadMetrics() {
+        // noop
+    }
+
+    /**
+     * @return {@code com.sun.management.ThreadMXBean.getThreadAllocatedBytes(long)}, or {@code null} if unavailable
+     */
+    private static Method findGetThreadAllocatedBytes() {
+        try {
+            final Class<?> beanClass = Class.forName("com.sun.management.ThreadMXBean");
+            if (!beanClass.isInstance(THREADS)) {
+                return null;
+            }
+            final Method method = beanClass.getMethod("getThreadAllocatedBytes", long.class);
+            beanClass.getMethod("setThreadAllocatedMemoryEnabled", boolean.class).invoke(THREADS, Boolean.TRUE);
+            return method;
+        } catch (final Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the CPU time used by the current thread, in nanoseconds, or {@code -1} if unavailable
+     */
+    static long currentThreadCpuTime() {
+        if (!THREADS.isCurrentThreadCpuTimeSupported()) {
+            return -1;
+        }
+        return THREADS.getCurrentThreadCpuTime();
+    }
+
+    /**
+     * @return the bytes allocated on the heap by the current thread so far, or {@code -1} if unavailable
+     */
+    static long currentThreadAllocatedBytes() {
+        return threadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * @param threadId
+     *        the thread id
+     * @return the bytes allocated on the heap by the thread so far, or {@code -1} if unavailable
+     */
+    static long threadAllocatedBytes(final long threadId) {
+        if (GET_THREAD_ALLOCATED_BYTES == null) {
+            return -1;
+        }
+        try {
+            return ((Long) GET_THREAD_ALLOCATED_BYTES.invoke(THREADS, threadId)).longValue();
+        } catch (final Exception e) {
+            return -1;
+        }
+    }
+}
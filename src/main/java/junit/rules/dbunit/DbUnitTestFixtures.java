@@ -8,13 +8,12 @@
  */
 package junit.rules.dbunit;
 
-import static junit.rules.dbunit.FixturesUtil.getFixtureNames;
-
-import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.List;
 
+import junit.rules.ExclusiveResources;
 import junit.rules.TestFixture;
-import junit.rules.util.Reflection;
+import junit.rules.index.AnnotationIndex;
 
 import org.apache.derby.jdbc.EmbeddedDriver;
 import org.dbunit.JdbcDatabaseTester;
@@ -28,6 +27,7 @@ import org.slf4j.LoggerFactory;
 /**
  * @author Alistair A. Israel
  */
+@ExclusiveResources(ExclusiveResources.DERBY_TEST)
 public class DbUnitTestFixtures extends TestFixture {
 
     private static final Logger logger = LoggerFactory.getLogger(DbUnitTestFixtures.class);
@@ -58,9 +58,12 @@ public class DbUnitTestFixtures extends TestFixture {
      */
     @Override
     protected final void inspect(final Description description) {
-        final Class<?> testClass = description.getTestClass();
-        final Method method = Reflection.quietlyGetMethod(testClass, description.getMethodName());
-        fixtureNames = getFixtureNames(testClass, method);
+        final AnnotationIndex index = AnnotationIndex.of(description.getTestClass());
+        fixtureNames = new ArrayList<String>(index.getFixtures());
+        final String methodName = description.getMethodName();
+        if (methodName != null) {
+            fixtureNames.addAll(index.getFixtures(methodName));
+        }
     }
 
     /**
@@ -88,6 +91,19 @@ public class DbUnitTestFixtures extends TestFixture {
         tester.onSetup();
     }
 
+    /**
+     * Reloads the fixtures, so the next test sees the same data the first one did.
+     *
+     * @throws Throwable
+     *         if reset fails
+     * @see junit.rules.TestFixture#reset()
+     */
+    @Override
+    protected final void reset() throws Throwable {
+        tester.onTearDown();
+        tester.onSetup();
+    }
+
     /**
      * {@inheritDoc}
      *
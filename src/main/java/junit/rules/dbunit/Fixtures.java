@@ -8,6 +8,7 @@
  */
 package junit.rules.dbunit;
 
+import static java.lang.annotation.ElementType.METHOD;
 import static java.lang.annotation.ElementType.TYPE;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
 
@@ -17,7 +18,7 @@ import java.lang.annotation.Target;
 /**
  * @author Alistair A. Israel
  */
-@Target(TYPE)
+@Target({ TYPE, METHOD })
 @Retention(RUNTIME)
 public @interface Fixtures {
 
@@ -0,0 +1,29 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules.derby;
+
+import java.sql.Connection;
+
+/**
+ * Creates the schema and reference data of a template database, once, for
+ * {@link DerbyDataSourceRule#setTemplate(String, DatabaseTemplate)}.
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+public interface DatabaseTemplate {
+
+    /**
+     * @param connection
+     *        a connection to the new, empty, template database
+     * @throws Exception
+     *         if the template couldn't be created
+     */
+    void create(Connection connection) throws Exception;
+}
@@ -18,26 +18,60 @@ import java.sql.Statement;
 
 import javax.sql.DataSource;
 
+import junit.rules.ExclusiveResources;
+import junit.rules.Snapshottable;
 import junit.rules.TestFixture;
+import junit.rules.jdbc.support.ConnectionPool;
 import junit.rules.jdbc.support.DriverManagerDataSource;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * <p>
  * It's a JUnit {@link org.junit.Rule} that also masquerades as a JDBC {@link DataSource}.
+ * </p>
+ * <p>
+ * Connections from {@link #getConnection()} (and those used by {@link #execute(String)}, {@link #count(String)} and
+ * snapshots) come from a {@link ConnectionPool} of up to {@value ConnectionPool#DEFAULT_MAX_SIZE} connections, since
+ * opening a Derby connection costs far more than most test queries. Closing one returns it to the pool, reset. Use
+ * {@link #setPoolSize(int)} to change the size, or {@code 0} to open a new connection every time.
+ * </p>
+ * <p>
+ * A database with a big schema, or a lot of reference data, can be built just once as a template, see
+ * {@link #setTemplate(String, DatabaseTemplate)}. Each test then gets a fresh copy of the template.
+ * </p>
  *
  * @author Alistair.Israel
  * @since 0.5
  */
-public class DerbyDataSourceRule extends TestFixture implements DataSource {
+@ExclusiveResources(ExclusiveResources.DERBY_MEMORY_TEST)
+public class DerbyDataSourceRule extends TestFixture implements DataSource, Snapshottable {
+
+    /**
+     * {@value #TEMPLATE_DIR_PROPERTY}, the directory to back up template databases in. By default, {@code /dev/shm} if
+     * there is one, otherwise {@code java.io.tmpdir}.
+     */
+    public static final String TEMPLATE_DIR_PROPERTY = "junit.rules.derby.template.dir";
 
     private static final Logger logger = LoggerFactory.getLogger(DerbyDataSourceRule.class);
 
     private final String databaseName;
 
+    private final DerbyTableSnapshot snapshot = new DerbyTableSnapshot();
+
     private DataSource dataSource;
 
+    private int poolSize = ConnectionPool.DEFAULT_MAX_SIZE;
+
+    private ConnectionPool pool;
+
+    private String templateName;
+
+    private DatabaseTemplate template;
+
+    private String copyName;
+
     /**
      * Instantiates a new Derby DataSource rule.
      *
@@ -55,6 +89,61 @@ public class DerbyDataSourceRule extends TestFixture implements DataSource {
         this("test");
     }
 
+    /**
+     * @param size
+     *        the most connections to pool, or {@code 0} not to pool connections at all
+     * @return this
+     * @since 0.6
+     */
+    public final DerbyDataSourceRule setPoolSize(final int size) {
+        this.poolSize = size;
+        return this;
+    }
+
+    /**
+     * <p>
+     * Creates the database from a template, instead of empty. The template is created once per JVM (the first time a
+     * rule with that template name is set up), and backed up with {@code SYSCS_UTIL.SYSCS_BACKUP_DATABASE}. At every
+     * setUp() after that, a new database is restored from the backup with {@code createFrom=}, and it's dropped (in
+     * the background) after tearDown(). So each test starts with an identical copy of the template, without running
+     * any DDL.
+     * </p>
+     * <p>
+     * Each copy has its own name (this rule's database name, with a suffix), so use this rule as the
+     * {@link DataSource}, rather than connecting by URL.
+     * </p>
+     *
+     * <pre>
+     * &#064;Rule
+     * public final DerbyDataSourceRule derby = new DerbyDataSourceRule().setTemplate(&quot;schema&quot;,
+     *         new DatabaseTemplate() {
+     *             public void create(final Connection connection) throws Exception {
+     *                 connection.createStatement().execute(&quot;CREATE TABLE ...&quot;);
+     *             }
+     *         });
+     * </pre>
+     *
+     * @param name
+     *        the template's name, shared by all rules that use the same template
+     * @param initializer
+     *        creates the template's schema and data, only used the first time
+     * @return this
+     * @since 0.6
+     */
+    public final DerbyDataSourceRule setTemplate(final String name, final DatabaseTemplate initializer) {
+        this.templateName = name;
+        this.template = initializer;
+        return this;
+    }
+
+    /**
+     * @return the {@link ConnectionPool}, or {@code null} if connections aren't pooled or Derby isn't set up
+     * @since 0.6
+     */
+    public final ConnectionPool getConnectionPool() {
+        return pool;
+    }
+
     /**
      * Setup Derby
      *
@@ -66,21 +155,121 @@ public class DerbyDataSourceRule extends TestFixture implements DataSource {
         logger.debug("setUp()");
         final String jdbcUrl = constructJdbcUrl();
         logger.debug("Using JDBC URL: " + jdbcUrl);
-        DriverManager.getConnection(jdbcUrl);
+        DriverManager.getConnection(jdbcUrl).close();
 
         final DriverManagerDataSource ds = new DriverManagerDataSource();
         ds.setJdbcUrl(jdbcUrl);
         dataSource = ds;
+        if (poolSize > 0) {
+            pool = new ConnectionPool(ds, poolSize);
+        }
         logger.info("Initialized Derby database at \"" + jdbcUrl + "\"");
     }
 
+    /**
+     * Drops any snapshot, closes the pooled connections, and drops the database if it was created from a template.
+     *
+     * @throws Throwable
+     *         if teardown fails
+     * @see junit.rules.TestFixture#tearDown()
+     */
+    @Override
+    protected final void tearDown() throws Throwable {
+        if (copyName == null && snapshot.hasCopies()) {
+            // the database outlives this rule, so don't leave copies behind in it
+            final Connection conn = snapshotConnection();
+            try {
+                snapshot.discard(conn);
+            } finally {
+                conn.close();
+            }
+        }
+        if (pool != null) {
+            logger.debug(databaseName + ": " + pool);
+            pool.close();
+            pool = null;
+        }
+        if (copyName != null) {
+            DerbyTemplates.dropLater(copyName);
+            copyName = null;
+        }
+    }
+
+    /**
+     * Copies the contents of all tables, within the database.
+     *
+     * @throws SQLException
+     *         on exception
+     * @see junit.rules.Snapshottable#snapshot()
+     */
+    @Override
+    public final void snapshot() throws SQLException {
+        final Connection conn = snapshotConnection();
+        try {
+            snapshot.take(conn);
+        } finally {
+            conn.close();
+        }
+    }
+
+    /**
+     * Puts back the contents of all tables present at the last {@link #snapshot()}.
+     *
+     * @throws SQLException
+     *         on exception
+     * @see junit.rules.Snapshottable#restore()
+     */
+    @Override
+    public final void restore() throws SQLException {
+        final Connection conn = snapshotConnection();
+        try {
+            snapshot.restore(conn);
+        } finally {
+            conn.close();
+        }
+    }
+
+    /**
+     * Doesn't go through {@link #activate()} once Derby is set up, since a class-scoped rule takes its first snapshot
+     * from within {@link #setUp()}, before a lazy rule counts as activated.
+     *
+     * @return a {@link Connection} to take or restore a snapshot with
+     * @throws SQLException
+     *         on exception
+     */
+    private Connection snapshotConnection() throws SQLException {
+        if (dataSource == null) {
+            activate();
+        }
+        if (pool != null) {
+            return pool.getConnection();
+        }
+        return dataSource.getConnection();
+    }
+
     /**
      * @return the JDBC URL to use
+     * @throws Exception
+     *         if the template database couldn't be created
      */
-    private String constructJdbcUrl() {
+    private String constructJdbcUrl() throws Exception {
+        if (template != null) {
+            copyName = DerbyTemplates.copyName(databaseName);
+            return "jdbc:derby:memory:" + copyName + ";createFrom="
+                    + DerbyTemplates.backupOf(templateName, template).getPath();
+        }
         return "jdbc:derby:memory:" + databaseName + ";create=true";
     }
 
+    /**
+     * @return the underlying {@link DataSource}, setting up Derby first if this rule is lazy
+     * @see junit.rules.TestFixture#setLazy(boolean)
+     */
+    private DataSource activeDataSource() {
+        activate();
+        return dataSource;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -88,17 +277,23 @@ public class DerbyDataSourceRule extends TestFixture implements DataSource {
      */
     @Override
     public final Connection getConnection() throws SQLException {
-        return dataSource.getConnection();
+        final DataSource ds = activeDataSource();
+        if (pool != null) {
+            return pool.getConnection();
+        }
+        return ds.getConnection();
     }
 
     /**
+     * Not pooled.
+     *
      * {@inheritDoc}
      *
      * @see javax.sql.DataSource#getConnection(java.lang.String, java.lang.String)
      */
     @Override
     public final Connection getConnection(final String username, final String password) throws SQLException {
-        return dataSource.getConnection(username, password);
+        return activeDataSource().getConnection(username, password);
     }
 
     /**
@@ -108,7 +303,7 @@ public class DerbyDataSourceRule extends TestFixture implements DataSource {
      */
     @Override
     public final PrintWriter getLogWriter() throws SQLException {
-        return dataSource.getLogWriter();
+        return activeDataSource().getLogWriter();
     }
 
     /**
@@ -118,7 +313,7 @@ public class DerbyDataSourceRule extends TestFixture implements DataSource {
      */
     @Override
     public final int getLoginTimeout() throws SQLException {
-        return dataSource.getLoginTimeout();
+        return activeDataSource().getLoginTimeout();
     }
 
     /**
@@ -128,7 +323,7 @@ public class DerbyDataSourceRule extends TestFixture implements DataSource {
      */
     @Override
     public final void setLogWriter(final PrintWriter out) throws SQLException {
-        dataSource.setLogWriter(out);
+        activeDataSource().setLogWriter(out);
     }
 
     /**
@@ -138,7 +333,7 @@ public class DerbyDataSourceRule extends TestFixture implements DataSource {
      */
     @Override
     public final void setLoginTimeout(final int seconds) throws SQLException {
-        dataSource.setLoginTimeout(seconds);
+        activeDataSource().setLoginTimeout(seconds);
     }
 
     /**
@@ -148,7 +343,7 @@ public class DerbyDataSourceRule extends TestFixture implements DataSource {
      */
     @Override
     public final boolean isWrapperFor(final Class<?> iface) throws SQLException {
-        return dataSource.isWrapperFor(iface);
+        return activeDataSource().isWrapperFor(iface);
     }
 
     /**
@@ -158,7 +353,7 @@ public class DerbyDataSourceRule extends TestFixture implements DataSource {
      */
     @Override
     public final <T> T unwrap(final Class<T> iface) throws SQLException {
-        return dataSource.unwrap(iface);
+        return activeDataSource().unwrap(iface);
     }
 
     /**
@@ -169,7 +364,7 @@ public class DerbyDataSourceRule extends TestFixture implements DataSource {
      */
     public final int execute(final String sql) {
         try {
-            final Connection conn = dataSource.getConnection();
+            final Connection conn = getConnection();
             try {
                 final Statement statement = conn.createStatement();
                 try {
@@ -196,7 +391,7 @@ public class DerbyDataSourceRule extends TestFixture implements DataSource {
      */
     public final int count(final String tableName) {
         try {
-            final Connection conn = dataSource.getConnection();
+            final Connection conn = getConnection();
             try {
                 final PreparedStatement ps = conn.prepareStatement("SELECT count(*) FROM " + tableName);
                 try {
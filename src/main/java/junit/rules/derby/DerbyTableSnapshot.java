@@ -0,0 +1,201 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules.derby;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * Copies the contents of every user table into a table of the same name in a schema of its own, and back. Everything
+ * happens inside the database, so no rows go through JDBC. Each snapshot gets its own schema, named
+ * {@value #SCHEMA}<i>_n</i>, so that several rules can share an in-memory database.
+ * </p>
+ * <p>
+ * Foreign keys are handled by retrying the tables that fail, for as long as each pass makes progress. Tables with
+ * {@code GENERATED ALWAYS} identity columns can't be restored. Use {@code GENERATED BY DEFAULT} instead.
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+final class DerbyTableSnapshot {
+
+    /**
+     * {@value #SCHEMA}
+     */
+    static final String SCHEMA = "JUNIT_RULES_SNAPSHOT";
+
+    private static final AtomicInteger SCHEMAS = new AtomicInteger();
+
+    private final String schema = SCHEMA + "_" + SCHEMAS.incrementAndGet();
+
+    private final List<String> tables = new ArrayList<String>();
+
+    /**
+     * Replaces the snapshot with the current contents of all user tables.
+     *
+     * @param conn
+     *        the {@link Connection} to use
+     * @throws SQLException
+     *         on exception
+     */
+    void take(final Connection conn) throws SQLException {
+        tables.clear();
+        final ResultSet rs = conn.getMetaData().getTables(null, null, null, new String[] {"TABLE" });
+        try {
+            while (rs.next()) {
+                if (!rs.getString("TABLE_SCHEM").startsWith(SCHEMA)) {
+                    tables.add(quote(rs.getString("TABLE_SCHEM")) + "." + quote(rs.getString("TABLE_NAME")));
+                }
+            }
+        } finally {
+            rs.close();
+        }
+        final Statement statement = conn.createStatement();
+        try {
+            dropCopies(conn, statement);
+            for (final String table : tables) {
+                final String copy = copyOf(table);
+                statement.execute("CREATE TABLE " + copy + " AS SELECT * FROM " + table + " WITH NO DATA");
+                statement.execute("INSERT INTO " + copy + " SELECT * FROM " + table);
+            }
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * Puts back the contents of all tables present at the last {@link #take(Connection)}.
+     *
+     * @param conn
+     *        the {@link Connection} to use
+     * @throws SQLException
+     *         on exception
+     */
+    void restore(final Connection conn) throws SQLException {
+        final Statement statement = conn.createStatement();
+        try {
+            final List<String> deletes = new ArrayList<String>();
+            final List<String> inserts = new ArrayList<String>();
+            for (final String table : tables) {
+                deletes.add("DELETE FROM " + table);
+                inserts.add("INSERT INTO " + table + " SELECT * FROM " + copyOf(table));
+            }
+            executeUntilDone(statement, deletes);
+            executeUntilDone(statement, inserts);
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * @return {@code true} if the last {@link #take(Connection)} copied any tables
+     */
+    boolean hasCopies() {
+        return !tables.isEmpty();
+    }
+
+    /**
+     * Drops the copies made by the last {@link #take(Connection)}.
+     *
+     * @param conn
+     *        the {@link Connection} to use
+     * @throws SQLException
+     *         on exception
+     */
+    void discard(final Connection conn) throws SQLException {
+        final Statement statement = conn.createStatement();
+        try {
+            dropCopies(conn, statement);
+        } finally {
+            tables.clear();
+            statement.close();
+        }
+    }
+
+    /**
+     * Drops every table in this snapshot's schema, going by the catalog rather than the tables last copied, since
+     * those may since have been dropped or renamed.
+     *
+     * @param conn
+     *        the {@link Connection} to use
+     * @param statement
+     *        the {@link Statement} to use
+     * @throws SQLException
+     *         on exception
+     */
+    private void dropCopies(final Connection conn, final Statement statement) throws SQLException {
+        final List<String> copies = new ArrayList<String>();
+        final ResultSet rs = conn.getMetaData().getTables(null, schema, null, new String[] {"TABLE" });
+        try {
+            while (rs.next()) {
+                copies.add(quote(schema) + "." + quote(rs.getString("TABLE_NAME")));
+            }
+        } finally {
+            rs.close();
+        }
+        for (final String copy : copies) {
+            statement.execute("DROP TABLE " + copy);
+        }
+    }
+
+    /**
+     * Executes all statements, retrying those that fail for as long as each pass makes progress.
+     *
+     * @param statement
+     *        the {@link Statement} to use
+     * @param sqls
+     *        the SQL statements
+     * @throws SQLException
+     *         the last failure, if a pass makes no progress
+     */
+    private static void executeUntilDone(final Statement statement, final List<String> sqls) throws SQLException {
+        final List<String> pending = new ArrayList<String>(sqls);
+        while (!pending.isEmpty()) {
+            final int before = pending.size();
+            SQLException failure = null;
+            for (final Iterator<String> i = pending.iterator(); i.hasNext();) {
+                try {
+                    statement.execute(i.next());
+                    i.remove();
+                } catch (final SQLException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null && pending.size() == before) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * @param table
+     *        the quoted, qualified table name
+     * @return the quoted, qualified name of its copy
+     */
+    private String copyOf(final String table) {
+        return quote(schema) + "." + quote(table.replace("\"", ""));
+    }
+
+    /**
+     * @param identifier
+     *        the identifier
+     * @return the identifier, quoted
+     */
+    private static String quote(final String identifier) {
+        return "\"" + identifier + "\"";
+    }
+}
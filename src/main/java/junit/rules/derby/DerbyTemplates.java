@@ -0,0 +1,222 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules.derby;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.rules.util.DaemonThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Builds each template database once per JVM, backs it up with {@code SYSCS_UTIL.SYSCS_BACKUP_DATABASE}, and drops
+ * it, so that in-memory databases can be created from the backup with {@code createFrom=}.
+ * </p>
+ * <p>
+ * Dropping a Derby database takes about half a second, however small it is, so each copy gets a new name, and copies
+ * are dropped on a background thread once they're no longer used.
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+final class DerbyTemplates {
+
+    private static final Logger logger = LoggerFactory.getLogger(DerbyTemplates.class);
+
+    private static final String MEMORY_URL = "jdbc:derby:memory:";
+
+    private static final String TEMPLATE_SUFFIX = "-template";
+
+    private static final String DATABASE_DROPPED = "08006";
+
+    private static final String DATABASE_NOT_FOUND = "XJ004";
+
+    private static final String TMPFS = "/dev/shm";
+
+    private static final Map<String, File> BACKUPS = new HashMap<String, File>();
+
+    private static final AtomicInteger COPIES = new AtomicInteger();
+
+    private static final ExecutorService DROPPER = Executors.newSingleThreadExecutor(new DaemonThreadFactory(
+            "DerbyTemplates"));
+
+    private static File backupDirectory;
+
+    /**
+     * Utility classes should not have a public or default constructor.
+     */
+    private DerbyTemplates() {
+        // noop
+    }
+
+    /**
+     * @param templateName
+     *        the template's name
+     * @param template
+     *        creates the template, if it hasn't been already
+     * @return the backup of the template database, to use with {@code createFrom=}
+     * @throws Exception
+     *         if the template couldn't be created or backed up
+     */
+    static synchronized File backupOf(final String templateName, final DatabaseTemplate template) throws Exception {
+        final File cached = BACKUPS.get(templateName);
+        if (cached != null) {
+            return cached;
+        }
+        final long start = System.nanoTime();
+        final String databaseName = templateName + TEMPLATE_SUFFIX;
+        try {
+            build(databaseName, template);
+        } catch (final Exception e) {
+            // drop what was built, so the next attempt starts afresh
+            try {
+                drop(databaseName);
+            } catch (final SQLException dropFailed) {
+                logger.warn("Unable to drop half built template " + databaseName + ": " + dropFailed, dropFailed);
+            }
+            throw e;
+        }
+        drop(databaseName);
+        final File backup = new File(backupDirectory(), databaseName);
+        BACKUPS.put(templateName, backup);
+        logger.info("Created template database \"" + templateName + "\" at " + backup + " in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+        return backup;
+    }
+
+    /**
+     * @param databaseName
+     *        the template database
+     * @param template
+     *        creates the template
+     * @throws Exception
+     *         if the template couldn't be created or backed up
+     */
+    private static void build(final String databaseName, final DatabaseTemplate template) throws Exception {
+        final Connection conn = DriverManager.getConnection(MEMORY_URL + databaseName + ";create=true");
+        try {
+            template.create(conn);
+            if (!conn.getAutoCommit()) {
+                conn.commit();
+            }
+            final CallableStatement call = conn.prepareCall("CALL SYSCS_UTIL.SYSCS_BACKUP_DATABASE(?)");
+            try {
+                call.setString(1, backupDirectory().getPath());
+                call.execute();
+            } finally {
+                call.close();
+            }
+        } finally {
+            conn.close();
+        }
+    }
+
+    /**
+     * @return the directory backups go in, on tmpfs if possible, created the first time
+     * @throws IOException
+     *         if it couldn't be created
+     */
+    private static File backupDirectory() throws IOException {
+        if (backupDirectory == null) {
+            File base = new File(System.getProperty("java.io.tmpdir"));
+            final File tmpfs = new File(TMPFS);
+            if (tmpfs.isDirectory() && tmpfs.canWrite()) {
+                base = tmpfs;
+            }
+            final String dir = System.getProperty(DerbyDataSourceRule.TEMPLATE_DIR_PROPERTY);
+            if (dir != null) {
+                base = new File(dir);
+            }
+            final File created = File.createTempFile("junit-rules-derby", "", base);
+            if (!created.delete() || !created.mkdir()) {
+                throw new IOException("Unable to create directory " + created);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread("DerbyTemplates cleanup") {
+                @Override
+                public void run() {
+                    delete(created);
+                }
+            });
+            backupDirectory = created;
+        }
+        return backupDirectory;
+    }
+
+    /**
+     * @param file
+     *        the file, or directory, to delete along with everything in it
+     */
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (final File child : children) {
+                delete(child);
+            }
+        }
+        if (!file.delete()) {
+            logger.debug("Unable to delete " + file);
+        }
+    }
+
+    /**
+     * @param databaseName
+     *        the name of a database to create from a template
+     * @return a name, based on it, that no other copy has
+     */
+    static String copyName(final String databaseName) {
+        return databaseName + "-" + COPIES.incrementAndGet();
+    }
+
+    /**
+     * @param databaseName
+     *        an in-memory database to drop in the background
+     */
+    static void dropLater(final String databaseName) {
+        DROPPER.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    drop(databaseName);
+                } catch (final SQLException e) {
+                    logger.warn("Unable to drop " + databaseName + ": " + e.getMessage(), e);
+                }
+            }
+        });
+    }
+
+    /**
+     * @param databaseName
+     *        an in-memory database to drop, if it exists
+     * @throws SQLException
+     *         if it exists but couldn't be dropped
+     */
+    static void drop(final String databaseName) throws SQLException {
+        try {
+            DriverManager.getConnection(MEMORY_URL + databaseName + ";drop=true");
+        } catch (final SQLException e) {
+            if (!DATABASE_DROPPED.equals(e.getSQLState()) && !DATABASE_NOT_FOUND.equals(e.getSQLState())) {
+                throw e;
+            }
+        }
+    }
+}
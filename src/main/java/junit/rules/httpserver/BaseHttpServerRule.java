@@ -11,11 +11,13 @@ package junit.rules.httpserver;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 
+import junit.rules.ExclusiveResources;
 import junit.rules.TestFixture;
 
 /**
  * @author Alistair A. Israel
  */
+@ExclusiveResources(ExclusiveResources.DEFAULT_HTTP_PORT)
 public abstract class BaseHttpServerRule extends TestFixture {
 
     /**
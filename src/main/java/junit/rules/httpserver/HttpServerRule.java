@@ -12,7 +12,14 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.InetSocketAddress;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+import junit.rules.Snapshottable;
+
+import com.sun.net.httpserver.HttpContext;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 
@@ -20,10 +27,14 @@ import com.sun.net.httpserver.HttpServer;
  *
  * @author Alistair A. Israel
  */
-public class HttpServerRule extends BaseHttpServerRule {
+public class HttpServerRule extends BaseHttpServerRule implements Snapshottable {
 
     private final InetSocketAddress address;
 
+    private final List<HttpContext> contexts = new ArrayList<HttpContext>();
+
+    private final Map<String, HttpHandler> snapshot = new LinkedHashMap<String, HttpHandler>();
+
     private HttpServer httpServer;
 
     /**
@@ -63,7 +74,8 @@ public class HttpServerRule extends BaseHttpServerRule {
      *        the handler to invoke for incoming requests
      */
     public final void addHandler(final String path, final HttpHandler handler) {
-        httpServer.createContext(path, handler);
+        activate();
+        contexts.add(httpServer.createContext(path, handler));
     }
 
     /**
@@ -77,6 +89,50 @@ public class HttpServerRule extends BaseHttpServerRule {
         httpServer.start();
     }
 
+    /**
+     * Removes all handlers added using {@link #addHandler(String, HttpHandler)}, leaving the server running.
+     *
+     * @throws Throwable
+     *         if reset fails
+     * @see junit.rules.TestFixture#reset()
+     */
+    @Override
+    protected final void reset() throws Throwable {
+        for (final HttpContext context : contexts) {
+            httpServer.removeContext(context);
+        }
+        contexts.clear();
+    }
+
+    /**
+     * Remembers the handlers added so far.
+     *
+     * @see junit.rules.Snapshottable#snapshot()
+     */
+    @Override
+    public final void snapshot() {
+        snapshot.clear();
+        for (final HttpContext context : contexts) {
+            snapshot.put(context.getPath(), context.getHandler());
+        }
+    }
+
+    /**
+     * Replaces all handlers with those present at the last {@link #snapshot()}, leaving the server running.
+     *
+     * @see junit.rules.Snapshottable#restore()
+     */
+    @Override
+    public final void restore() {
+        for (final HttpContext context : contexts) {
+            httpServer.removeContext(context);
+        }
+        contexts.clear();
+        for (final Map.Entry<String, HttpHandler> entry : snapshot.entrySet()) {
+            contexts.add(httpServer.createContext(entry.getKey(), entry.getValue()));
+        }
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -85,6 +141,7 @@ public class HttpServerRule extends BaseHttpServerRule {
     @Override
     protected final void tearDown() throws Throwable {
         httpServer.stop(0);
+        contexts.clear();
     }
 
     /**
@@ -96,6 +153,7 @@ public class HttpServerRule extends BaseHttpServerRule {
      */
     @Override
     public final HttpURLConnection get(final String path) throws IOException {
+        activate();
         final URL url = new URL("http://" + address.getHostName() + ":" + address.getPort() + path);
         final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
         connection.setRequestMethod("GET");
@@ -112,6 +170,7 @@ public class HttpServerRule extends BaseHttpServerRule {
      */
     @Override
     public final HttpURLConnection post(final String path) throws IOException {
+        activate();
         final URL url = new URL("http://" + address.getHostName() + ":" + address.getPort() + path);
         final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
         connection.setDoOutput(true);
@@ -129,6 +188,7 @@ public class HttpServerRule extends BaseHttpServerRule {
      */
     @Override
     public final HttpURLConnection put(final String path) throws IOException {
+        activate();
         final URL url = new URL("http://" + address.getHostName() + ":" + address.getPort() + path);
         final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
         connection.setDoOutput(true);
@@ -146,6 +206,7 @@ public class HttpServerRule extends BaseHttpServerRule {
      */
     @Override
     public final HttpURLConnection delete(final String path) throws IOException {
+        activate();
         final URL url = new URL("http://" + address.getHostName() + ":" + address.getPort() + path);
         final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
         connection.setRequestMethod("DELETE");
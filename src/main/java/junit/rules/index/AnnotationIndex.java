@@ -0,0 +1,387 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules.index;
+
+import java.lang.annotation.Annotation;
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import junit.rules.Throws;
+import junit.rules.dbunit.Fixtures;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * The junit-rules annotations of a class: {@link Fixtures} on the class and its methods, {@link Throws} on its
+ * methods, and its {@code javax.persistence.PersistenceContext} fields and {@code javax.annotation.PostConstruct}
+ * methods.
+ * </p>
+ * <p>
+ * These are read from the index written at compile time by {@link AnnotationIndexProcessor}, or, for classes that
+ * weren't compiled with it, found by reflection. Either way, each class is only looked at once (until its class loader
+ * can be collected, and memory is short). An index whose class file is more than {@value #STALE_AFTER_MILLIS}ms newer
+ * than it, say because the class was later recompiled without annotation processing, is ignored as stale.
+ * </p>
+ * <p>
+ * Unlike {@link Class#getMethod(String, Class...)}, method lookups find non-public methods, and methods inherited from
+ * superclasses. Like it, they use the nearest declaration of the method, so an overriding method without an
+ * annotation doesn't get its superclass method's.
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+public final class AnnotationIndex {
+
+    /**
+     * Where the index of each class is kept, followed by the binary class name and {@value #SUFFIX}
+     */
+    static final String PREFIX = "META-INF/junit-rules/";
+
+    /**
+     * {@value #SUFFIX}
+     */
+    static final String SUFFIX = ".properties";
+
+    /**
+     * The key of the class {@link Fixtures}, or, followed by a method name, of the method {@link Fixtures}
+     */
+    static final String FIXTURES = "fixtures";
+
+    /**
+     * The key, followed by a method name, of the {@link Throws} class
+     */
+    static final String THROWS = "throws.";
+
+    /**
+     * The key of the {@code PersistenceContext} field names
+     */
+    static final String PERSISTENCE_CONTEXT = "persistenceContext";
+
+    /**
+     * The key of the {@code PostConstruct} method names
+     */
+    static final String POST_CONSTRUCT = "postConstruct";
+
+    /**
+     * {@value #PERSISTENCE_CONTEXT_ANNOTATION}
+     */
+    static final String PERSISTENCE_CONTEXT_ANNOTATION = "javax.persistence.PersistenceContext";
+
+    /**
+     * {@value #POST_CONSTRUCT_ANNOTATION}
+     */
+    static final String POST_CONSTRUCT_ANNOTATION = "javax.annotation.PostConstruct";
+
+    /**
+     * Separates names in a list
+     */
+    static final String SEPARATOR = ",";
+
+    /**
+     * {@value #STALE_AFTER_MILLIS}
+     */
+    static final long STALE_AFTER_MILLIS = 60000;
+
+    private static final Logger logger = LoggerFactory.getLogger(AnnotationIndex.class);
+
+    // each index references its class, so only softly, or the class would never be collected
+    private static final Map<Class<?>, Reference<AnnotationIndex>> INDEXES =
+            new WeakHashMap<Class<?>, Reference<AnnotationIndex>>();
+
+    private final Class<?> type;
+
+    private final ConcurrentMap<String, Class<?>> declaringClasses = new ConcurrentHashMap<String, Class<?>>();
+
+    private final Properties entries;
+
+    private final boolean indexed;
+
+    private final List<Field> persistenceContextFields = new ArrayList<Field>();
+
+    private final List<Method> postConstructMethods = new ArrayList<Method>();
+
+    /**
+     * @param type
+     *        the class
+     * @param entries
+     *        its index entries
+     * @param indexed
+     *        {@code true} if the entries were read from the compile time index
+     */
+    private AnnotationIndex(final Class<?> type, final Properties entries, final boolean indexed) {
+        this.type = type;
+        this.entries = entries;
+        this.indexed = indexed;
+        for (final String name : split(entries.getProperty(PERSISTENCE_CONTEXT))) {
+            try {
+                persistenceContextFields.add(type.getDeclaredField(name));
+            } catch (final NoSuchFieldException e) {
+                // caught by load(), which falls back to reflection
+                throw new IllegalStateException("Stale annotation index for " + type.getName(), e);
+            }
+        }
+        final List<String> postConstructNames = split(entries.getProperty(POST_CONSTRUCT));
+        if (!postConstructNames.isEmpty()) {
+            for (final Method method : type.getDeclaredMethods()) {
+                if (postConstructNames.contains(method.getName())) {
+                    postConstructMethods.add(method);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param type
+     *        the class
+     * @return the {@link AnnotationIndex} of the class
+     */
+    public static AnnotationIndex of(final Class<?> type) {
+        final AnnotationIndex index = cached(type);
+        if (index != null) {
+            return index;
+        }
+        final AnnotationIndex loaded = load(type);
+        synchronized (INDEXES) {
+            final AnnotationIndex existing = cached(type);
+            if (existing != null) {
+                return existing;
+            }
+            INDEXES.put(type, new SoftReference<AnnotationIndex>(loaded));
+        }
+        return loaded;
+    }
+
+    /**
+     * @param type
+     *        the class
+     * @return the {@link AnnotationIndex} of the class, if it's been loaded and not collected since, or {@code null}
+     */
+    private static AnnotationIndex cached(final Class<?> type) {
+        synchronized (INDEXES) {
+            final Reference<AnnotationIndex> ref = INDEXES.get(type);
+            if (ref == null) {
+                return null;
+            }
+            return ref.get();
+        }
+    }
+
+    /**
+     * @param type
+     *        the class
+     * @return the {@link AnnotationIndex} read from the compile time index, or found by reflection if there isn't one
+     */
+    private static AnnotationIndex load(final Class<?> type) {
+        final Properties entries = IndexFiles.read(type);
+        if (entries == null) {
+            return reflect(type);
+        }
+        try {
+            return new AnnotationIndex(type, entries, true);
+        } catch (final IllegalStateException e) {
+            logger.debug(e.getMessage(), e);
+            return reflect(type);
+        }
+    }
+
+    /**
+     * @param type
+     *        the class
+     * @return the {@link AnnotationIndex} of the class, found by reflection
+     */
+    static AnnotationIndex reflect(final Class<?> type) {
+        final Properties entries = new Properties();
+        if (type.isAnnotationPresent(Fixtures.class)) {
+            entries.setProperty(FIXTURES, join(type.getAnnotation(Fixtures.class).value()));
+        }
+        for (final Field field : type.getDeclaredFields()) {
+            if (isAnnotationPresent(field.getAnnotations(), PERSISTENCE_CONTEXT_ANNOTATION)) {
+                append(entries, PERSISTENCE_CONTEXT, field.getName());
+            }
+        }
+        for (final Method method : type.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(Fixtures.class)) {
+                entries.setProperty(FIXTURES + "." + method.getName(), join(method.getAnnotation(Fixtures.class)
+                        .value()));
+            }
+            if (method.isAnnotationPresent(Throws.class)) {
+                entries.setProperty(THROWS + method.getName(), method.getAnnotation(Throws.class).value().getName());
+            }
+            if (isAnnotationPresent(method.getAnnotations(), POST_CONSTRUCT_ANNOTATION)) {
+                append(entries, POST_CONSTRUCT, method.getName());
+            }
+        }
+        return new AnnotationIndex(type, entries, false);
+    }
+
+    /**
+     * @param annotations
+     *        the annotations
+     * @param annotationName
+     *        the name of the annotation type, so we don't depend on it being on the classpath
+     * @return {@code true} if one of the annotations is of the named type
+     */
+    private static boolean isAnnotationPresent(final Annotation[] annotations, final String annotationName) {
+        for (final Annotation annotation : annotations) {
+            if (annotation.annotationType().getName().equals(annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param entries
+     *        the index entries
+     * @param key
+     *        the key of a list of names
+     * @param name
+     *        the name to add to the list
+     */
+    static void append(final Properties entries, final String key, final String name) {
+        final String names = entries.getProperty(key);
+        if (names == null) {
+            entries.setProperty(key, name);
+        } else {
+            entries.setProperty(key, names + SEPARATOR + name);
+        }
+    }
+
+    /**
+     * @param names
+     *        the names
+     * @return the names, as a list
+     */
+    static String join(final String... names) {
+        final StringBuilder sb = new StringBuilder();
+        for (final String name : names) {
+            if (sb.length() > 0) {
+                sb.append(SEPARATOR);
+            }
+            sb.append(name);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param names
+     *        a list of names, may be {@code null}
+     * @return the names
+     */
+    private static List<String> split(final String names) {
+        final List<String> list = new ArrayList<String>();
+        if (names != null && names.length() > 0) {
+            Collections.addAll(list, names.split(SEPARATOR));
+        }
+        return list;
+    }
+
+    /**
+     * @return {@code true} if read from the compile time index, {@code false} if found by reflection
+     */
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    /**
+     * @return the {@link Fixtures} names of the class itself
+     */
+    public List<String> getFixtures() {
+        return split(entries.getProperty(FIXTURES));
+    }
+
+    /**
+     * @param methodName
+     *        the name of a method of the class, or of a superclass
+     * @return the {@link Fixtures} names of the method
+     */
+    public List<String> getFixtures(final String methodName) {
+        return split(lookup(FIXTURES + "." + methodName, methodName));
+    }
+
+    /**
+     * @param methodName
+     *        the name of a method of the class, or of a superclass
+     * @return the {@link Throws} class of the method, or {@code null} if it has none
+     */
+    public Class<? extends Throwable> getThrows(final String methodName) {
+        final String className = lookup(THROWS + methodName, methodName);
+        if (className == null) {
+            return null;
+        }
+        try {
+            return Class.forName(className, false, type.getClassLoader()).asSubclass(Throwable.class);
+        } catch (final ClassNotFoundException e) {
+            throw new IllegalStateException("Stale annotation index for " + type.getName(), e);
+        }
+    }
+
+    /**
+     * @return the {@code PersistenceContext} fields declared by the class
+     */
+    public List<Field> getPersistenceContextFields() {
+        return Collections.unmodifiableList(persistenceContextFields);
+    }
+
+    /**
+     * @return the {@code PostConstruct} methods declared by the class
+     */
+    public List<Method> getPostConstructMethods() {
+        return Collections.unmodifiableList(postConstructMethods);
+    }
+
+    /**
+     * @param key
+     *        the key of a method entry
+     * @param methodName
+     *        the method name
+     * @return the entry of the nearest class, from this one up, that declares the method, or {@code null}
+     */
+    private String lookup(final String key, final String methodName) {
+        Class<?> declaring = declaringClasses.get(methodName);
+        if (declaring == null) {
+            declaring = findDeclaringClass(methodName);
+            declaringClasses.putIfAbsent(methodName, declaring);
+        }
+        if (declaring == Object.class) {
+            return null;
+        }
+        return of(declaring).entries.getProperty(key);
+    }
+
+    /**
+     * @param methodName
+     *        the name of a method without parameters
+     * @return the nearest class, from this one up, that declares it, or {@link Object} if none does
+     */
+    private Class<?> findDeclaringClass(final String methodName) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod(methodName);
+                return c;
+            } catch (final NoSuchMethodException e) {
+                continue;
+            }
+        }
+        return Object.class;
+    }
+}
@@ -0,0 +1,237 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules.index;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * <p>
+ * Writes the {@link AnnotationIndex} of each class that uses {@link junit.rules.Throws},
+ * {@link junit.rules.dbunit.Fixtures}, {@code javax.persistence.PersistenceContext} or
+ * {@code javax.annotation.PostConstruct}, so that rules don't have to find them by reflection for every test.
+ * </p>
+ * <p>
+ * It is registered in {@code META-INF/services}, so javac picks it up from the test classpath without any further
+ * configuration.
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+@SupportedAnnotationTypes({ AnnotationIndexProcessor.THROWS_ANNOTATION, AnnotationIndexProcessor.FIXTURES_ANNOTATION,
+        AnnotationIndex.PERSISTENCE_CONTEXT_ANNOTATION, AnnotationIndex.POST_CONSTRUCT_ANNOTATION })
+public final class AnnotationIndexProcessor extends AbstractProcessor {
+
+    /**
+     * {@value #THROWS_ANNOTATION}
+     */
+    static final String THROWS_ANNOTATION = "junit.rules.Throws";
+
+    /**
+     * {@value #FIXTURES_ANNOTATION}
+     */
+    static final String FIXTURES_ANNOTATION = "junit.rules.dbunit.Fixtures";
+
+    private final Map<String, Properties> indexes = new TreeMap<String, Properties>();
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.annotation.processing.AbstractProcessor#getSupportedSourceVersion()
+     */
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.annotation.processing.AbstractProcessor#process(java.util.Set,
+     *      javax.annotation.processing.RoundEnvironment)
+     */
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for (final TypeElement annotation : annotations) {
+            for (final Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                final AnnotationMirror mirror = findMirror(element, annotation);
+                if (mirror != null) {
+                    index(element, annotation.getQualifiedName().toString(), mirror);
+                }
+            }
+        }
+        if (roundEnv.processingOver()) {
+            write();
+        }
+        return false;
+    }
+
+    /**
+     * @param element
+     *        the annotated element
+     * @param annotationName
+     *        the annotation type name
+     * @param mirror
+     *        the annotation
+     */
+    private void index(final Element element, final String annotationName, final AnnotationMirror mirror) {
+        if (element.getKind().isClass() || element.getKind().isInterface()) {
+            if (FIXTURES_ANNOTATION.equals(annotationName)) {
+                entriesOf(element).setProperty(AnnotationIndex.FIXTURES, fixtureNames(mirror));
+            }
+        } else {
+            indexMember(entriesOf(element.getEnclosingElement()), element, annotationName, mirror);
+        }
+    }
+
+    /**
+     * @param entries
+     *        the index entries of the class declaring the member
+     * @param element
+     *        the annotated field or method
+     * @param annotationName
+     *        the annotation type name
+     * @param mirror
+     *        the annotation
+     */
+    private void indexMember(final Properties entries, final Element element, final String annotationName,
+            final AnnotationMirror mirror) {
+        final boolean isMethod = element.getKind() == ElementKind.METHOD;
+        final String name = element.getSimpleName().toString();
+        if (FIXTURES_ANNOTATION.equals(annotationName) && isMethod) {
+            entries.setProperty(AnnotationIndex.FIXTURES + "." + name, fixtureNames(mirror));
+        } else if (THROWS_ANNOTATION.equals(annotationName) && isMethod) {
+            final DeclaredType throwsType = (DeclaredType) valueOf(mirror).getValue();
+            entries.setProperty(AnnotationIndex.THROWS + name, binaryName(throwsType.asElement()));
+        } else if (AnnotationIndex.PERSISTENCE_CONTEXT_ANNOTATION.equals(annotationName)
+                && element.getKind() == ElementKind.FIELD) {
+            AnnotationIndex.append(entries, AnnotationIndex.PERSISTENCE_CONTEXT, name);
+        } else if (AnnotationIndex.POST_CONSTRUCT_ANNOTATION.equals(annotationName) && isMethod) {
+            AnnotationIndex.append(entries, AnnotationIndex.POST_CONSTRUCT, name);
+        }
+    }
+
+    /**
+     * @param element
+     *        the annotated element
+     * @param annotation
+     *        the annotation type
+     * @return the annotation on the element, or {@code null}
+     */
+    private static AnnotationMirror findMirror(final Element element, final TypeElement annotation) {
+        for (final AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (mirror.getAnnotationType().asElement().equals(annotation)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param mirror
+     *        an annotation
+     * @return its {@code value()}
+     */
+    private static AnnotationValue valueOf(final AnnotationMirror mirror) {
+        for (final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror
+                .getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value")) {
+                return entry.getValue();
+            }
+        }
+        throw new IllegalArgumentException("No value() in " + mirror);
+    }
+
+    /**
+     * @param mirror
+     *        a {@code Fixtures} annotation
+     * @return the fixture names, as an index list
+     */
+    private static String fixtureNames(final AnnotationMirror mirror) {
+        final Object value = valueOf(mirror).getValue();
+        if (!(value instanceof List<?>)) {
+            // @Fixtures("single.xml")
+            return String.valueOf(value);
+        }
+        final List<?> values = (List<?>) value;
+        final String[] names = new String[values.size()];
+        for (int i = 0; i < names.length; ++i) {
+            names[i] = String.valueOf(((AnnotationValue) values.get(i)).getValue());
+        }
+        return AnnotationIndex.join(names);
+    }
+
+    /**
+     * @param type
+     *        a class
+     * @return the index entries of the class
+     */
+    private Properties entriesOf(final Element type) {
+        final String binaryName = binaryName(type);
+        Properties entries = indexes.get(binaryName);
+        if (entries == null) {
+            entries = new Properties();
+            indexes.put(binaryName, entries);
+        }
+        return entries;
+    }
+
+    /**
+     * @param type
+     *        a class
+     * @return its binary name, as returned by {@link Class#getName()}
+     */
+    private String binaryName(final Element type) {
+        return processingEnv.getElementUtils().getBinaryName((TypeElement) type).toString();
+    }
+
+    /**
+     * Writes the index of each class seen.
+     */
+    private void write() {
+        for (final Map.Entry<String, Properties> entry : indexes.entrySet()) {
+            final String path = AnnotationIndex.PREFIX + entry.getKey() + AnnotationIndex.SUFFIX;
+            try {
+                final FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                        path);
+                final OutputStream out = file.openOutputStream();
+                try {
+                    entry.getValue().store(out, null);
+                } finally {
+                    out.close();
+                }
+            } catch (final IOException e) {
+                processingEnv.getMessager().printMessage(Kind.WARNING,
+                        "Couldn't write " + path + ", will fall back to reflection: " + e);
+            }
+        }
+        indexes.clear();
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 15, 2026
+ */
+package junit.rules.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the index files written by {@link AnnotationIndexProcessor}, unless they're stale.
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+final class IndexFiles {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexFiles.class);
+
+    /**
+     * Utility classes should not have a public or default constructor.
+     */
+    private IndexFiles() {
+        // noop
+    }
+
+    /**
+     * @param type
+     *        the class
+     * @return its index entries, or {@code null} if it has no index, or the index is stale or can't be read
+     */
+    static Properties read(final Class<?> type) {
+        ClassLoader classLoader = type.getClassLoader();
+        if (classLoader == null) {
+            classLoader = ClassLoader.getSystemClassLoader();
+        }
+        final URL index = classLoader.getResource(AnnotationIndex.PREFIX + type.getName() + AnnotationIndex.SUFFIX);
+        if (index == null) {
+            return null;
+        }
+        if (!isCurrent(index, classLoader.getResource(type.getName().replace('.', '/') + ".class"))) {
+            logger.debug("Ignoring stale annotation index " + index);
+            return null;
+        }
+        final Properties entries = new Properties();
+        try {
+            final InputStream in = index.openStream();
+            try {
+                entries.load(in);
+            } finally {
+                in.close();
+            }
+        } catch (final IOException e) {
+            logger.debug("Unable to read " + index + ": " + e, e);
+            return null;
+        }
+        return entries;
+    }
+
+    /**
+     * @param index
+     *        the index of a class
+     * @param classFile
+     *        the class file, may be {@code null}
+     * @return {@code false} if the class file is more than {@value AnnotationIndex#STALE_AFTER_MILLIS}ms newer than the
+     *         index
+     */
+    static boolean isCurrent(final URL index, final URL classFile) {
+        if (classFile == null) {
+            return true;
+        }
+        final long indexModified = lastModified(index);
+        final long classModified = lastModified(classFile);
+        return indexModified == 0 || classModified - indexModified <= AnnotationIndex.STALE_AFTER_MILLIS;
+    }
+
+    /**
+     * @param url
+     *        a file, or jar entry
+     * @return when it was last modified, or {@code 0} if that's not known
+     */
+    private static long lastModified(final URL url) {
+        try {
+            if ("file".equals(url.getProtocol())) {
+                return new File(url.toURI()).lastModified();
+            } else if ("jar".equals(url.getProtocol())) {
+                return Math.max(0, ((JarURLConnection) url.openConnection()).getJarEntry().getTime());
+            }
+        } catch (final IOException e) {
+            logger.trace(e.getMessage(), e);
+        } catch (final URISyntaxException e) {
+            logger.trace(e.getMessage(), e);
+        }
+        return 0;
+    }
+}
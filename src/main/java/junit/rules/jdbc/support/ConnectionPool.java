@@ -0,0 +1,265 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules.jdbc.support;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.sql.DataSource;
+
+import junit.rules.LatencyHistogram;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * A small, bounded pool of connections from a {@link DataSource}. Closing a connection handed out by
+ * {@link #getConnection()} returns it to the pool, after closing any statements left open, rolling back any
+ * transaction left open and putting back its autocommit, read-only, transaction isolation and (on Derby) schema.
+ * Connections that have been idle for a while are validated before they're handed out again.
+ * </p>
+ * <p>
+ * Handing out a connection takes no locks unless the pool is exhausted, in which case callers wait (up to
+ * {@link #setMaxWait(long, TimeUnit)}) for one to be returned. How long they waited is recorded, see
+ * {@link #getAcquireWait()}.
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+public final class ConnectionPool {
+
+    /**
+     * {@value #DEFAULT_MAX_SIZE}
+     */
+    public static final int DEFAULT_MAX_SIZE = 8;
+
+    private static final long DEFAULT_MAX_WAIT_MILLIS = 30000;
+
+    private static final long DEFAULT_VALIDATE_AFTER_MILLIS = 5000;
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private final DataSource target;
+
+    private final int maxSize;
+
+    private final Semaphore permits;
+
+    private final Queue<PooledConnection> idle = new ConcurrentLinkedQueue<PooledConnection>();
+
+    private final AtomicLong opened = new AtomicLong();
+
+    private final AtomicLongArray acquireWait = new AtomicLongArray(LatencyHistogram.getBucketCount());
+
+    private volatile long maxWaitMillis = DEFAULT_MAX_WAIT_MILLIS;
+
+    private volatile long validateAfterNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_VALIDATE_AFTER_MILLIS);
+
+    private volatile boolean closed;
+
+    /**
+     * @param target
+     *        the {@link DataSource} to pool connections from
+     * @param maxSize
+     *        the most connections to have open at once
+     */
+    public ConnectionPool(final DataSource target, final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1, not " + maxSize);
+        }
+        this.target = target;
+        this.maxSize = maxSize;
+        this.permits = new Semaphore(maxSize);
+    }
+
+    /**
+     * @param maxWait
+     *        how long {@link #getConnection()} waits for a connection when all are in use
+     * @param unit
+     *        the time unit
+     * @return this
+     */
+    public ConnectionPool setMaxWait(final long maxWait, final TimeUnit unit) {
+        this.maxWaitMillis = unit.toMillis(maxWait);
+        return this;
+    }
+
+    /**
+     * @param validateAfter
+     *        how long a connection can be idle before it's validated
+     * @param unit
+     *        the time unit
+     * @return this
+     */
+    public ConnectionPool setValidateAfter(final long validateAfter, final TimeUnit unit) {
+        this.validateAfterNanos = unit.toNanos(validateAfter);
+        return this;
+    }
+
+    /**
+     * @return a connection from the pool, opened if there's none idle
+     * @throws SQLException
+     *         if the pool is closed, a connection couldn't be opened, or none was returned in time
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        final long start = System.nanoTime();
+        if (!permits.tryAcquire()) {
+            awaitPermit();
+        }
+        acquireWait.incrementAndGet(LatencyHistogram.bucketOf(System.nanoTime() - start));
+        boolean handedOut = false;
+        try {
+            final Connection connection = take().checkOut();
+            handedOut = true;
+            return connection;
+        } finally {
+            if (!handedOut) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * @throws SQLException
+     *         if no connection was returned in time
+     */
+    private void awaitPermit() throws SQLException {
+        try {
+            if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + maxWaitMillis + "ms waiting for one of " + maxSize
+                        + " pooled connections");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a pooled connection", e);
+        }
+    }
+
+    /**
+     * @return an idle connection that's still usable, or a new one
+     * @throws SQLException
+     *         if a new connection couldn't be opened
+     */
+    private PooledConnection take() throws SQLException {
+        PooledConnection connection = idle.poll();
+        while (connection != null) {
+            if (connection.isUsable(validateAfterNanos)) {
+                return connection;
+            }
+            logger.debug("Discarding invalid " + connection);
+            connection.closeQuietly();
+            connection = idle.poll();
+        }
+        final Connection physical = target.getConnection();
+        try {
+            final PooledConnection pooled = new PooledConnection(this, physical);
+            opened.incrementAndGet();
+            return pooled;
+        } catch (final SQLException e) {
+            physical.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Called when a handed out connection is closed.
+     *
+     * @param connection
+     *        the connection to reset and put back in the pool
+     */
+    void release(final PooledConnection connection) {
+        try {
+            connection.reset();
+            idle.offer(connection);
+            // close() may have drained the pool just before we put it back
+            if (closed && idle.remove(connection)) {
+                connection.closeQuietly();
+            }
+        } catch (final SQLException e) {
+            logger.warn("Discarding " + connection + " that couldn't be reset: " + e.getMessage(), e);
+            connection.closeQuietly();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * @return the number of connections asked for so far
+     */
+    public long getAcquireCount() {
+        return getAcquireWait().getTotalCount();
+    }
+
+    /**
+     * @return the number of physical connections opened so far
+     */
+    public long getOpenedCount() {
+        return opened.get();
+    }
+
+    /**
+     * @return the number of connections idle in the pool
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * @return the number of connections handed out and not yet returned
+     */
+    public int getActiveCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    /**
+     * @return a histogram of how long each {@link #getConnection()} waited for a connection to be free (not including
+     *         the time to open a new one)
+     */
+    public LatencyHistogram getAcquireWait() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < acquireWait.length(); ++i) {
+            histogram.recordBucket(i, acquireWait.get(i));
+        }
+        return histogram;
+    }
+
+    /**
+     * Closes all idle connections. Connections still handed out are closed when they're returned.
+     */
+    public void close() {
+        closed = true;
+        PooledConnection connection = idle.poll();
+        while (connection != null) {
+            connection.closeQuietly();
+            connection = idle.poll();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return opened.get() + " connections opened, " + getActiveCount() + " active, " + getIdleCount()
+                + " idle; acquire wait " + getAcquireWait();
+    }
+}
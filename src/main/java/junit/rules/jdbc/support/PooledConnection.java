@@ -0,0 +1,345 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules.jdbc.support;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>
+ * A physical {@link Connection} held by a {@link ConnectionPool}, along with the state it was opened with so that it
+ * can be put back the way it was.
+ * </p>
+ * <p>
+ * Statements, result sets and database metadata obtained through a handed out connection are wrapped too, so that
+ * their {@code getConnection()} (and a result set's {@code getStatement()}) lead back to the handle rather than the
+ * physical connection, and so that statements the caller left open are closed when the connection is returned.
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+final class PooledConnection {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private final ConnectionPool pool;
+
+    private final Connection physical;
+
+    private final int isolation;
+
+    private final String schema;
+
+    private PreparedStatement currentSchema;
+
+    private final Set<Statement> statements = Collections.newSetFromMap(new IdentityHashMap<Statement, Boolean>());
+
+    private long lastUsed = System.nanoTime();
+
+    /**
+     * @param pool
+     *        the pool it belongs to
+     * @param physical
+     *        the newly opened connection
+     * @throws SQLException
+     *         if its state can't be read
+     */
+    PooledConnection(final ConnectionPool pool, final Connection physical) throws SQLException {
+        this.pool = pool;
+        this.physical = physical;
+        this.isolation = physical.getTransactionIsolation();
+        this.schema = readSchema();
+    }
+
+    /**
+     * @return the current schema, or {@code null} if the database doesn't say
+     * @throws SQLException
+     *         on exception
+     */
+    private String readSchema() throws SQLException {
+        if (currentSchema == null) {
+            try {
+                currentSchema = physical.prepareStatement("VALUES CURRENT SCHEMA");
+            } catch (final SQLException e) {
+                // not Derby (or DB2), so leave the schema alone
+                return null;
+            }
+        }
+        final ResultSet rs = currentSchema.executeQuery();
+        try {
+            rs.next();
+            return rs.getString(1);
+        } finally {
+            rs.close();
+        }
+    }
+
+    /**
+     * @param validateAfterNanos
+     *        how long the connection can be idle before it has to be validated
+     * @return {@code true} if the connection can be handed out again
+     */
+    boolean isUsable(final long validateAfterNanos) {
+        try {
+            if (physical.isClosed()) {
+                return false;
+            }
+            return System.nanoTime() - lastUsed < validateAfterNanos || physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (final SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return a new handle on the physical connection, that returns it to the pool when closed
+     */
+    Connection checkOut() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new Handle());
+    }
+
+    /**
+     * Rolls back any transaction left open, and puts back autocommit, read-only, the transaction isolation and the
+     * schema.
+     *
+     * @throws SQLException
+     *         if the connection couldn't be reset
+     */
+    void reset() throws SQLException {
+        closeStatements();
+        if (!physical.getAutoCommit()) {
+            physical.rollback();
+            physical.setAutoCommit(true);
+        }
+        if (physical.isReadOnly()) {
+            physical.setReadOnly(false);
+        }
+        if (physical.getTransactionIsolation() != isolation) {
+            physical.setTransactionIsolation(isolation);
+        }
+        if (schema != null && !schema.equals(readSchema())) {
+            final PreparedStatement setSchema = physical.prepareStatement("SET SCHEMA ?");
+            try {
+                setSchema.setString(1, schema);
+                setSchema.executeUpdate();
+            } finally {
+                setSchema.close();
+            }
+        }
+        physical.clearWarnings();
+        lastUsed = System.nanoTime();
+    }
+
+    /**
+     * Closes the statements (and so their result sets) opened through the last handle and not yet closed.
+     *
+     * @throws SQLException
+     *         if one couldn't be closed
+     */
+    private void closeStatements() throws SQLException {
+        final List<Statement> open;
+        synchronized (statements) {
+            open = new ArrayList<Statement>(statements);
+            statements.clear();
+        }
+        for (final Statement statement : open) {
+            statement.close();
+        }
+    }
+
+    /**
+     * @param connection
+     *        the handle the object was obtained through
+     * @param parent
+     *        the wrapped statement or metadata the object was obtained from, or the handle itself
+     * @param method
+     *        the method that returned the object
+     * @param result
+     *        the object returned
+     * @return the object, wrapped if it's a statement, result set or database metadata
+     */
+    private Object wrap(final Object connection, final Object parent, final Method method, final Object result) {
+        final Class<?> type = method.getReturnType();
+        if (result == null || !isWrapped(type)) {
+            return result;
+        }
+        final String name = method.getName();
+        if (Statement.class.isAssignableFrom(type) && (name.startsWith("create") || name.startsWith("prepare"))) {
+            synchronized (statements) {
+                statements.add((Statement) result);
+            }
+        }
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new Wrapper(connection, parent,
+                result));
+    }
+
+    /**
+     * @param type
+     *        the declared return type of a JDBC method
+     * @return {@code true} if objects of that type are wrapped
+     */
+    private static boolean isWrapped(final Class<?> type) {
+        return Statement.class.isAssignableFrom(type) || type == ResultSet.class || type == DatabaseMetaData.class;
+    }
+
+    /**
+     * @param proxy
+     *        a proxy
+     * @param method
+     *        the method called on it
+     * @param args
+     *        the arguments
+     * @return the result of {@code equals()}, {@code hashCode()} or {@code toString()} by identity, or {@code null} if
+     *         the method isn't one of those
+     */
+    private static Object identity(final Object proxy, final Method method, final Object[] args) {
+        final String name = method.getName();
+        if ("equals".equals(name) && method.getParameterTypes().length == 1) {
+            return proxy == args[0];
+        } else if ("hashCode".equals(name) && method.getParameterTypes().length == 0) {
+            return System.identityHashCode(proxy);
+        }
+        return null;
+    }
+
+    /**
+     * Closes the physical connection, ignoring any failure.
+     */
+    void closeQuietly() {
+        try {
+            physical.close();
+        } catch (final SQLException e) {
+            // nothing more we can do
+            return;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "pooled " + physical + ", idle " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastUsed) + "ms";
+    }
+
+    /**
+     * A handle on the physical connection, handed out once. Closing it returns the connection to the pool.
+     */
+    private final class Handle implements InvocationHandler {
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see java.lang.reflect.InvocationHandler#invoke(java.lang.Object, java.lang.reflect.Method,
+         *      java.lang.Object[])
+         */
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final String name = method.getName();
+            if ("close".equals(name)) {
+                if (closed.compareAndSet(false, true)) {
+                    pool.release(PooledConnection.this);
+                }
+                return null;
+            } else if ("isClosed".equals(name)) {
+                return closed.get();
+            } else if ("toString".equals(name)) {
+                return PooledConnection.this.toString();
+            }
+            final Object identity = identity(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            if (closed.get()) {
+                throw new SQLException("Connection is closed");
+            }
+            try {
+                return wrap(proxy, proxy, method, method.invoke(physical, args));
+            } catch (final InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+
+    /**
+     * Wraps a statement, result set or database metadata, so that it leads back to the handle and not the physical
+     * connection.
+     */
+    private final class Wrapper implements InvocationHandler {
+
+        private final Object connection;
+
+        private final Object parent;
+
+        private final Object target;
+
+        /**
+         * @param connection
+         *        the handle the target was obtained through
+         * @param parent
+         *        the wrapped object the target was obtained from
+         * @param target
+         *        the statement, result set or database metadata to wrap
+         */
+        Wrapper(final Object connection, final Object parent, final Object target) {
+            this.connection = connection;
+            this.parent = parent;
+            this.target = target;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see java.lang.reflect.InvocationHandler#invoke(java.lang.Object, java.lang.reflect.Method,
+         *      java.lang.Object[])
+         */
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final String name = method.getName();
+            if ("getConnection".equals(name)) {
+                return connection;
+            } else if ("getStatement".equals(name) && parent instanceof Statement) {
+                return parent;
+            } else if ("close".equals(name) && target instanceof Statement) {
+                synchronized (statements) {
+                    statements.remove(target);
+                }
+            }
+            final Object identity = identity(proxy, method, args);
+            if (identity != null) {
+                return identity;
+            }
+            try {
+                return wrap(connection, proxy, method, method.invoke(target, args));
+            } catch (final InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -66,6 +66,7 @@ public class JettyServerRule extends BaseHttpServerRule {
      * @see org.mortbay.jetty.handler.HandlerWrapper#setHandler(org.mortbay.jetty.Handler)
      */
     public final void setHandler(final Handler handler) {
+        activate();
         server.setHandler(handler);
     }
 
@@ -88,6 +89,7 @@ public class JettyServerRule extends BaseHttpServerRule {
      */
     @Override
     public final HttpURLConnection get(final String path) throws IOException {
+        activate();
         final InetSocketAddress address = new InetSocketAddress(getPort());
         final URL url = new URL("http://" + address.getHostName() + ":" + address.getPort() + path);
         final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
@@ -105,6 +107,7 @@ public class JettyServerRule extends BaseHttpServerRule {
      */
     @Override
     public final HttpURLConnection post(final String path) throws IOException {
+        activate();
     	final InetSocketAddress address = new InetSocketAddress(getPort());
         final URL url = new URL("http://" + address.getHostName() + ":" + address.getPort() + path);
         final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
@@ -123,6 +126,7 @@ public class JettyServerRule extends BaseHttpServerRule {
      */
     @Override
     public final HttpURLConnection put(final String path) throws IOException {
+        activate();
     	final InetSocketAddress address = new InetSocketAddress(getPort());
         final URL url = new URL("http://" + address.getHostName() + ":" + address.getPort() + path);
         final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
@@ -141,6 +145,7 @@ public class JettyServerRule extends BaseHttpServerRule {
      */
     @Override
     public final HttpURLConnection delete(final String path) throws IOException {
+        activate();
     	final InetSocketAddress address = new InetSocketAddress(getPort());
         final URL url = new URL("http://" + address.getHostName() + ":" + address.getPort() + path);
         final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
@@ -0,0 +1,220 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules.jndi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.naming.Reference;
+
+import junit.rules.jdbc.support.DriverManagerDataSource;
+
+/**
+ * <p>
+ * A set of JNDI bindings read from a properties file on the classpath, in either the plain or the XML properties format
+ * (if its name ends with {@code .xml}). Each key is a {@code /} separated name, and each value is {@code type:value},
+ * where the type is one of:
+ * </p>
+ * <ul>
+ * <li>{@code string}, {@code int}, {@code long}, {@code double} or {@code boolean}</li>
+ * <li>{@code datasource}, a {@link DriverManagerDataSource} for the JDBC URL that follows</li>
+ * <li>{@code derby}, a {@link DriverManagerDataSource} for the in-memory Derby database named, the same one that a
+ * {@link junit.rules.derby.DerbyDataSourceRule} with that name sets up</li>
+ * <li>{@code reference}, a {@link Reference} given as {@code className,factoryClassName}, bound lazily</li>
+ * </ul>
+ * <p>
+ * A value without one of those types is a string. Note that {@code :} separates keys from values in plain properties
+ * files, so it has to be escaped in names:
+ * </p>
+ *
+ * <pre>
+ * java\:comp/env/jdbc/appDS = derby:app
+ * java\:comp/env/maxRetries = int:3
+ * java\:comp/env/greeting = Hello, world!
+ * </pre>
+ * <p>
+ * Descriptors are read once per JVM and cached. Data sources are created when first looked up, anew for each
+ * {@link StubJndiContext} the descriptor is bound to.
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+final class JndiDescriptor {
+
+    private static final ConcurrentMap<String, JndiDescriptor> CACHE = new ConcurrentHashMap<String, JndiDescriptor>();
+
+    private final Map<List<String>, Object> entries = new HashMap<List<String>, Object>();
+
+    /**
+     * Use {@link #load(String)}.
+     *
+     * @param resource
+     *        the descriptor's name, for error messages
+     * @param properties
+     *        the descriptor's contents
+     */
+    private JndiDescriptor(final String resource, final Properties properties) {
+        for (final String name : properties.stringPropertyNames()) {
+            try {
+                entries.put(Collections.unmodifiableList(StubJndiContext.parse(name)),
+                        valueOf(properties.getProperty(name)));
+            } catch (final IllegalArgumentException e) {
+                throw new IllegalArgumentException(resource + ": \"" + name + "\": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * @param resource
+     *        the descriptor's name on the classpath
+     * @return the descriptor, read the first time it's asked for
+     */
+    static JndiDescriptor load(final String resource) {
+        final JndiDescriptor cached = CACHE.get(resource);
+        if (cached != null) {
+            return cached;
+        }
+        final JndiDescriptor descriptor = new JndiDescriptor(resource, read(resource));
+        final JndiDescriptor raced = CACHE.putIfAbsent(resource, descriptor);
+        if (raced != null) {
+            return raced;
+        }
+        return descriptor;
+    }
+
+    /**
+     * @param resource
+     *        the descriptor's name on the classpath
+     * @return its properties
+     */
+    private static Properties read(final String resource) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = JndiDescriptor.class.getClassLoader();
+        }
+        final InputStream in = classLoader.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IllegalArgumentException("JNDI descriptor \"" + resource + "\" not found on the classpath");
+        }
+        final Properties properties = new Properties();
+        try {
+            try {
+                if (resource.endsWith(".xml")) {
+                    properties.loadFromXML(in);
+                } else {
+                    properties.load(in);
+                }
+            } finally {
+                in.close();
+            }
+        } catch (final IOException e) {
+            throw new IllegalArgumentException("Unable to read JNDI descriptor \"" + resource + "\": " + e, e);
+        }
+        return properties;
+    }
+
+    /**
+     * @param value
+     *        a descriptor value, {@code type:value}
+     * @return the object to bind, or a {@link Callable} that creates it
+     */
+    private static Object valueOf(final String value) {
+        final int colon = value.indexOf(':');
+        if (colon < 0) {
+            return value;
+        }
+        final String type = value.substring(0, colon);
+        final String rest = value.substring(colon + 1);
+        if ("string".equals(type)) {
+            return rest;
+        } else if ("int".equals(type)) {
+            return Integer.valueOf(rest.trim());
+        } else if ("long".equals(type)) {
+            return Long.valueOf(rest.trim());
+        } else if ("double".equals(type)) {
+            return Double.valueOf(rest.trim());
+        } else if ("boolean".equals(type)) {
+            return Boolean.valueOf(rest.trim());
+        }
+        return objectOf(type, rest.trim(), value);
+    }
+
+    /**
+     * @param type
+     *        the value's type
+     * @param rest
+     *        the value, after the type
+     * @param value
+     *        the whole value
+     * @return the {@link Reference}, or a {@link Callable} that creates the {@link javax.sql.DataSource}, or the whole
+     *         value if the type isn't one of those
+     */
+    private static Object objectOf(final String type, final String rest, final String value) {
+        if ("datasource".equals(type)) {
+            return dataSource(rest);
+        } else if ("derby".equals(type)) {
+            return dataSource("jdbc:derby:memory:" + rest + ";create=true");
+        } else if ("reference".equals(type)) {
+            final String[] classNames = rest.split(",");
+            if (classNames.length != 2) {
+                throw new IllegalArgumentException("Expecting reference:className,factoryClassName but got " + value);
+            }
+            return new Reference(classNames[0].trim(), classNames[1].trim(), null);
+        }
+        return value;
+    }
+
+    /**
+     * @param jdbcUrl
+     *        the JDBC URL
+     * @return a {@link Callable} that creates a {@link DriverManagerDataSource} for it
+     */
+    private static Callable<DriverManagerDataSource> dataSource(final String jdbcUrl) {
+        return new Callable<DriverManagerDataSource>() {
+            @Override
+            public DriverManagerDataSource call() {
+                final DriverManagerDataSource dataSource = new DriverManagerDataSource();
+                dataSource.setJdbcUrl(jdbcUrl);
+                return dataSource;
+            }
+        };
+    }
+
+    /**
+     * @return the number of bindings
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the bindings, by path, ready to bind: objects created lazily are wrapped in a new {@link LazyBinding}
+     */
+    Map<List<String>, Object> bindings() {
+        final Map<List<String>, Object> bindings = new HashMap<List<String>, Object>(entries.size());
+        for (final Entry<List<String>, Object> entry : entries.entrySet()) {
+            if (entry.getValue() instanceof Callable) {
+                bindings.put(entry.getKey(), LazyBinding.singleton((Callable<?>) entry.getValue()));
+            } else {
+                bindings.put(entry.getKey(), LazyBinding.of(entry.getValue()));
+            }
+        }
+        return bindings;
+    }
+}
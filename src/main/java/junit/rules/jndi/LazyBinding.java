@@ -0,0 +1,160 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules.jndi;
+
+import java.util.Hashtable;
+import java.util.concurrent.Callable;
+
+import javax.naming.NamingException;
+import javax.naming.Reference;
+import javax.naming.spi.NamingManager;
+
+/**
+ * An object bound to a {@link StubJndiContext} that isn't created until it's looked up: either by a {@link Callable},
+ * or from a {@link Reference} by its {@link javax.naming.spi.ObjectFactory}. A singleton binding creates the object on
+ * the first lookup, and returns the same object from then on; a prototype binding creates a new object on every
+ * lookup.
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+final class LazyBinding {
+
+    /**
+     * Binds {@code null}, since a {@code null} binding in a {@link Namespace} means nothing is bound
+     */
+    private static final LazyBinding NULL = new LazyBinding(null, null, false);
+
+    private final Callable<?> factory;
+
+    private final Reference reference;
+
+    private final boolean prototype;
+
+    private volatile Object value;
+
+    /**
+     * @param factory
+     *        creates the object, or {@code null} if it's created from the reference
+     * @param reference
+     *        the reference to create the object from, or {@code null}
+     * @param prototype
+     *        {@code true} to create a new object on every lookup
+     */
+    private LazyBinding(final Callable<?> factory, final Reference reference, final boolean prototype) {
+        this.factory = factory;
+        this.reference = reference;
+        this.prototype = prototype;
+    }
+
+    /**
+     * @param factory
+     *        creates the object on the first lookup
+     * @return a singleton {@link LazyBinding}
+     */
+    static LazyBinding singleton(final Callable<?> factory) {
+        return new LazyBinding(factory, null, false);
+    }
+
+    /**
+     * @param factory
+     *        creates a new object on every lookup
+     * @return a prototype {@link LazyBinding}
+     */
+    static LazyBinding prototype(final Callable<?> factory) {
+        return new LazyBinding(factory, null, true);
+    }
+
+    /**
+     * @param obj
+     *        an object to bind
+     * @return a singleton {@link LazyBinding} if the object is a {@link Reference} or {@code null}, otherwise the
+     *         object itself
+     */
+    static Object of(final Object obj) {
+        if (obj == null) {
+            return NULL;
+        }
+        if (obj instanceof Reference) {
+            return new LazyBinding(null, (Reference) obj, false);
+        }
+        return obj;
+    }
+
+    /**
+     * @param environment
+     *        the environment of the context the object is looked up through
+     * @return the object, created if need be
+     * @throws NamingException
+     *         if the object couldn't be created
+     */
+    Object get(final Hashtable<?, ?> environment) throws NamingException {
+        if (this == NULL) {
+            return null;
+        }
+        if (prototype) {
+            return create(environment);
+        }
+        final Object obj = value;
+        if (obj != null) {
+            return obj;
+        }
+        return createOnce(environment);
+    }
+
+    /**
+     * @param environment
+     *        the environment of the context the object is looked up through
+     * @return the object, created if no other thread got there first
+     * @throws NamingException
+     *         if the object couldn't be created
+     */
+    private synchronized Object createOnce(final Hashtable<?, ?> environment) throws NamingException {
+        if (value == null) {
+            value = create(environment);
+        }
+        return value;
+    }
+
+    /**
+     * @return the class name of the object, without creating it
+     */
+    String getClassName() {
+        final Object obj = value;
+        if (obj != null) {
+            return obj.getClass().getName();
+        }
+        if (reference != null) {
+            return reference.getClassName();
+        }
+        return Object.class.getName();
+    }
+
+    /**
+     * @param environment
+     *        the environment of the context the object is looked up through
+     * @return a new object
+     * @throws NamingException
+     *         if the object couldn't be created
+     */
+    private Object create(final Hashtable<?, ?> environment) throws NamingException {
+        try {
+            if (reference != null) {
+                return NamingManager.getObjectInstance(reference, null, null, environment);
+            }
+            return factory.call();
+        } catch (final NamingException e) {
+            throw e;
+        } catch (final Exception e) {
+            final NamingException namingException = new NamingException("Couldn't create bound object: " + e);
+            namingException.setRootCause(e);
+            throw namingException;
+        }
+    }
+}
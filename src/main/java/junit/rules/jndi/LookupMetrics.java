@@ -0,0 +1,257 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules.jndi;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import junit.rules.LatencyHistogram;
+
+/**
+ * <p>
+ * Counts the lookups made against a {@link StubJndiContext}: how many times each name was looked up, how many of those
+ * found nothing, how long they took and where from. A name looked up thousands of times during a test usually means
+ * some code path looks it up on every request instead of caching it.
+ * </p>
+ * <p>
+ * Recording takes no locks. The calling class is only sampled, on the 1st, 2nd, 4th, 8th... lookup of each name, since
+ * walking the stack costs far more than the lookup itself.
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+public final class LookupMetrics {
+
+    private static final int REPORT_NAMES = 10;
+
+    private static final String STUB_CONTEXT = StubJndiContext.class.getName();
+
+    private final ConcurrentMap<String, AtomicLong> lookups = new ConcurrentHashMap<String, AtomicLong>();
+
+    private final ConcurrentMap<String, AtomicLong> misses = new ConcurrentHashMap<String, AtomicLong>();
+
+    private final ConcurrentMap<String, ConcurrentMap<String, AtomicLong>> callers =
+            new ConcurrentHashMap<String, ConcurrentMap<String, AtomicLong>>();
+
+    private final AtomicLongArray latency = new AtomicLongArray(LatencyHistogram.getBucketCount());
+
+    /**
+     * Package-private. Created by {@link StubJndiContext}.
+     */
+    LookupMetrics() {
+        // noop
+    }
+
+    /**
+     * @param name
+     *        the name looked up, from the root
+     * @param startNanos
+     *        the {@link System#nanoTime()} the lookup started at
+     * @param found
+     *        {@code false} if nothing was bound to the name
+     */
+    void record(final String name, final long startNanos, final boolean found) {
+        latency.incrementAndGet(LatencyHistogram.bucketOf(System.nanoTime() - startNanos));
+        final long count = increment(lookups, name);
+        if (!found) {
+            increment(misses, name);
+        }
+        if (Long.bitCount(count) == 1) {
+            ConcurrentMap<String, AtomicLong> byCaller = callers.get(name);
+            if (byCaller == null) {
+                callers.putIfAbsent(name, new ConcurrentHashMap<String, AtomicLong>());
+                byCaller = callers.get(name);
+            }
+            increment(byCaller, callerOf(Thread.currentThread().getStackTrace()));
+        }
+    }
+
+    /**
+     * @param counters
+     *        the counters
+     * @param key
+     *        the key of the counter to increment, created as needed
+     * @return the new count
+     */
+    private static long increment(final ConcurrentMap<String, AtomicLong> counters, final String key) {
+        AtomicLong counter = counters.get(key);
+        if (counter == null) {
+            final AtomicLong created = new AtomicLong();
+            counter = counters.putIfAbsent(key, created);
+            if (counter == null) {
+                counter = created;
+            }
+        }
+        return counter.incrementAndGet();
+    }
+
+    /**
+     * @param stack
+     *        the current stack trace
+     * @return the name of the first class on the stack that isn't part of JNDI (or of the stub context)
+     */
+    private static String callerOf(final StackTraceElement[] stack) {
+        for (final StackTraceElement frame : stack) {
+            final String className = frame.getClassName();
+            if (!isInternal(className)) {
+                return className;
+            }
+        }
+        return "unknown";
+    }
+
+    /**
+     * @param className
+     *        a class on the stack
+     * @return {@code true} if it's part of JNDI, the stub context or {@link Thread}
+     */
+    private static boolean isInternal(final String className) {
+        if (className.equals(STUB_CONTEXT) || className.startsWith(STUB_CONTEXT + "$")) {
+            return true;
+        }
+        return className.equals(LookupMetrics.class.getName()) || className.equals(Thread.class.getName())
+                || className.startsWith("javax.naming.");
+    }
+
+    /**
+     * @param counters
+     *        the counters
+     * @return a copy of their counts, by name
+     */
+    private static Map<String, Long> countsOf(final Map<String, AtomicLong> counters) {
+        final Map<String, Long> counts = new TreeMap<String, Long>();
+        if (counters != null) {
+            for (final Entry<String, AtomicLong> entry : counters.entrySet()) {
+                counts.put(entry.getKey(), entry.getValue().get());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * @return the number of lookups of each name, including those that found nothing
+     */
+    public Map<String, Long> getLookupCounts() {
+        return countsOf(lookups);
+    }
+
+    /**
+     * @return the number of lookups of each name that found nothing
+     */
+    public Map<String, Long> getMissCounts() {
+        return countsOf(misses);
+    }
+
+    /**
+     * @param name
+     *        a name, from the root
+     * @return the number of times it was looked up
+     */
+    public long getLookupCount(final String name) {
+        final AtomicLong count = lookups.get(name);
+        if (count == null) {
+            return 0;
+        }
+        return count.get();
+    }
+
+    /**
+     * @param name
+     *        a name, from the root
+     * @return the classes that looked it up, with the number of (sampled) lookups by each
+     */
+    public Map<String, Long> getCallers(final String name) {
+        return countsOf(callers.get(name));
+    }
+
+    /**
+     * @return the number of lookups, of any name
+     */
+    public long getTotalLookups() {
+        long total = 0;
+        for (final AtomicLong count : lookups.values()) {
+            total += count.get();
+        }
+        return total;
+    }
+
+    /**
+     * @return a histogram of the latency of all lookups so far
+     */
+    public LatencyHistogram getLatency() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < latency.length(); ++i) {
+            histogram.recordBucket(i, latency.get(i));
+        }
+        return histogram;
+    }
+
+    /**
+     * Forgets all lookups so far.
+     */
+    public void reset() {
+        lookups.clear();
+        misses.clear();
+        callers.clear();
+        for (int i = 0; i < latency.length(); ++i) {
+            latency.set(i, 0);
+        }
+    }
+
+    /**
+     * @return the most looked up names, most first, with their miss counts and callers, and the lookup latency
+     */
+    public String toReport() {
+        final Map<String, Long> remaining = getLookupCounts();
+        final Map<String, Long> missCounts = getMissCounts();
+        final StringBuilder sb = new StringBuilder();
+        sb.append(getTotalLookups()).append(" lookups of ").append(remaining.size()).append(" names, ")
+                .append(getLatency());
+        for (int i = 0; i < REPORT_NAMES && !remaining.isEmpty(); ++i) {
+            final String name = mostLookedUp(remaining);
+            sb.append("\n  ").append(remaining.remove(name)).append(" x \"").append(name).append('"');
+            if (missCounts.containsKey(name)) {
+                sb.append(", ").append(missCounts.get(name)).append(" not found");
+            }
+            sb.append(", from ").append(getCallers(name).keySet());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param counts
+     *        lookup counts, by name, not empty
+     * @return the name with the highest count
+     */
+    private static String mostLookedUp(final Map<String, Long> counts) {
+        Entry<String, Long> most = null;
+        for (final Entry<String, Long> entry : counts.entrySet()) {
+            if (most == null || entry.getValue() > most.getValue()) {
+                most = entry;
+            }
+        }
+        return most.getKey();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return toReport();
+    }
+}
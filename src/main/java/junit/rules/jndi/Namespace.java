@@ -0,0 +1,271 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules.jndi;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.naming.ContextNotEmptyException;
+import javax.naming.InvalidNameException;
+import javax.naming.NameAlreadyBoundException;
+import javax.naming.NameNotFoundException;
+import javax.naming.NamingException;
+import javax.naming.NotContextException;
+
+/**
+ * <p>
+ * An immutable tree of JNDI bindings, where a {@link Namespace} bound to a name is a subcontext. Every change returns a
+ * new tree that shares all but the path to the change (so, O(depth)) with the old one. This is what lets
+ * {@link StubJndiContext} hand out consistent, lock-free snapshots.
+ * </p>
+ * <p>
+ * Paths are lists of atomic names, relative to this namespace.
+ * </p>
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+final class Namespace {
+
+    /**
+     * The empty namespace
+     */
+    static final Namespace EMPTY = new Namespace(Collections.<String, Object>emptyMap());
+
+    private final Map<String, Object> bindings;
+
+    /**
+     * @param bindings
+     *        the bindings, which must not be changed afterwards
+     */
+    private Namespace(final Map<String, Object> bindings) {
+        this.bindings = bindings;
+    }
+
+    /**
+     * @return {@code true} if nothing is bound in this namespace
+     */
+    boolean isEmpty() {
+        return bindings.isEmpty();
+    }
+
+    /**
+     * @return the bindings of this namespace (not of its subcontexts)
+     */
+    Iterator<Map.Entry<String, Object>> iterator() {
+        return Collections.unmodifiableMap(bindings).entrySet().iterator();
+    }
+
+    /**
+     * @param path
+     *        the path
+     * @return the object bound to the path, or this namespace if the path is empty
+     * @throws NamingException
+     *         if nothing is bound to the path, or part of the path isn't a context
+     */
+    Object lookup(final List<String> path) throws NamingException {
+        Object current = this;
+        for (int i = 0; i < path.size(); ++i) {
+            if (!(current instanceof Namespace)) {
+                throw new NotContextException(join(path.subList(0, i)) + " is not a context");
+            }
+            current = ((Namespace) current).bindings.get(path.get(i));
+            if (current == null) {
+                throw new NameNotFoundException(join(path.subList(0, i + 1)) + " not bound");
+            }
+        }
+        return current;
+    }
+
+    /**
+     * @param path
+     *        the path
+     * @return the object bound to the path, or {@code null} if nothing is
+     * @throws NamingException
+     *         if part of the path isn't a context
+     */
+    private Object find(final List<String> path) throws NamingException {
+        try {
+            return lookup(path);
+        } catch (final NameNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param path
+     *        the path, creating any subcontexts along it that don't exist yet
+     * @param obj
+     *        the object to bind
+     * @param overwrite
+     *        {@code true} to replace any object already bound to the path
+     * @return the new namespace
+     * @throws NamingException
+     *         if something is already bound to the path (and not {@code overwrite}), or part of the path isn't a
+     *         context
+     */
+    Namespace bind(final List<String> path, final Object obj, final boolean overwrite) throws NamingException {
+        if (path.isEmpty()) {
+            throw new InvalidNameException("Cannot bind empty name");
+        }
+        if (!overwrite && find(path) != null) {
+            throw new NameAlreadyBoundException(join(path) + " already bound");
+        }
+        return with(path, 0, obj);
+    }
+
+    /**
+     * Binds many objects at once, copying each namespace along the way only once (so, O(number of bindings) instead of
+     * O(number of bindings &times; size of each namespace)). Objects already bound to the same paths are replaced.
+     *
+     * @param entries
+     *        the objects to bind, by path, creating any subcontexts along them that don't exist yet
+     * @return the new namespace
+     * @throws NamingException
+     *         if a path is empty, or part of a path isn't a context
+     */
+    Namespace bindAll(final Map<List<String>, Object> entries) throws NamingException {
+        final Map<String, Object> copy = new HashMap<String, Object>(bindings);
+        final Map<String, Map<List<String>, Object>> children = new HashMap<String, Map<List<String>, Object>>();
+        for (final Map.Entry<List<String>, Object> entry : entries.entrySet()) {
+            final List<String> path = entry.getKey();
+            if (path.isEmpty()) {
+                throw new InvalidNameException("Cannot bind empty name");
+            }
+            if (path.size() == 1) {
+                copy.put(path.get(0), entry.getValue());
+                continue;
+            }
+            Map<List<String>, Object> child = children.get(path.get(0));
+            if (child == null) {
+                child = new HashMap<List<String>, Object>();
+                children.put(path.get(0), child);
+            }
+            child.put(path.subList(1, path.size()), entry.getValue());
+        }
+        for (final Map.Entry<String, Map<List<String>, Object>> child : children.entrySet()) {
+            final Object existing = copy.get(child.getKey());
+            if (existing != null && !(existing instanceof Namespace)) {
+                throw new NotContextException(child.getKey() + " is not a context");
+            }
+            Namespace namespace = EMPTY;
+            if (existing != null) {
+                namespace = (Namespace) existing;
+            }
+            copy.put(child.getKey(), namespace.bindAll(child.getValue()));
+        }
+        return new Namespace(copy);
+    }
+
+    /**
+     * @param path
+     *        the path
+     * @return the new namespace, or this one if nothing was bound to the path
+     * @throws NamingException
+     *         if the path's parent context doesn't exist
+     */
+    Namespace unbind(final List<String> path) throws NamingException {
+        if (path.isEmpty()) {
+            throw new InvalidNameException("Cannot unbind empty name");
+        }
+        if (!(lookup(path.subList(0, path.size() - 1)) instanceof Namespace)) {
+            throw new NotContextException(join(path.subList(0, path.size() - 1)) + " is not a context");
+        }
+        if (find(path) == null) {
+            return this;
+        }
+        return with(path, 0, null);
+    }
+
+    /**
+     * @param oldPath
+     *        the path an object is bound to
+     * @param newPath
+     *        the path to bind it to instead
+     * @return the new namespace
+     * @throws NamingException
+     *         if nothing is bound to {@code oldPath}, or something already is to {@code newPath}
+     */
+    Namespace rename(final List<String> oldPath, final List<String> newPath) throws NamingException {
+        final Object obj = lookup(oldPath);
+        return unbind(oldPath).bind(newPath, obj, false);
+    }
+
+    /**
+     * @param path
+     *        the path of the subcontext to destroy
+     * @return the new namespace, or this one if there was no such subcontext
+     * @throws NamingException
+     *         if something other than a context, or a context that isn't empty, is bound to the path
+     */
+    Namespace destroySubcontext(final List<String> path) throws NamingException {
+        final Object obj = find(path);
+        if (obj == null) {
+            return this;
+        }
+        if (!(obj instanceof Namespace)) {
+            throw new NotContextException(join(path) + " is not a context");
+        }
+        if (!((Namespace) obj).isEmpty()) {
+            throw new ContextNotEmptyException(join(path) + " is not empty");
+        }
+        return unbind(path);
+    }
+
+    /**
+     * @param path
+     *        the path
+     * @param index
+     *        the index, in the path, of the atomic name bound in this namespace
+     * @param obj
+     *        the object to bind, or {@code null} to unbind
+     * @return a copy of this namespace, with the object bound
+     * @throws NotContextException
+     *         if part of the path isn't a context
+     */
+    private Namespace with(final List<String> path, final int index, final Object obj) throws NotContextException {
+        final String name = path.get(index);
+        final Map<String, Object> copy = new HashMap<String, Object>(bindings);
+        if (index < path.size() - 1) {
+            final Object child = bindings.get(name);
+            if (child != null && !(child instanceof Namespace)) {
+                throw new NotContextException(join(path.subList(0, index + 1)) + " is not a context");
+            }
+            Namespace namespace = EMPTY;
+            if (child != null) {
+                namespace = (Namespace) child;
+            }
+            copy.put(name, namespace.with(path, index + 1, obj));
+        } else if (obj == null) {
+            copy.remove(name);
+        } else {
+            copy.put(name, obj);
+        }
+        return new Namespace(copy);
+    }
+
+    /**
+     * @param path
+     *        a path
+     * @return the path as a string, with {@code /} separators
+     */
+    static String join(final List<String> path) {
+        final StringBuilder sb = new StringBuilder();
+        for (final String name : path) {
+            if (sb.length() > 0) {
+                sb.append('/');
+            }
+            sb.append(name);
+        }
+        return sb.toString();
+    }
+}
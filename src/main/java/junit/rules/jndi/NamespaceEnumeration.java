@@ -0,0 +1,103 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules.jndi;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+
+/**
+ * A lazy {@link NamingEnumeration} over the bindings of a {@link Namespace}. Since a {@link Namespace} never changes,
+ * the enumeration is over a snapshot for free, and each element is only created when asked for.
+ *
+ * @param <T>
+ *        the element type
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+abstract class NamespaceEnumeration<T> implements NamingEnumeration<T> {
+
+    private final Iterator<Map.Entry<String, Object>> entries;
+
+    /**
+     * @param namespace
+     *        the {@link Namespace} to enumerate
+     */
+    NamespaceEnumeration(final Namespace namespace) {
+        this.entries = namespace.iterator();
+    }
+
+    /**
+     * @param name
+     *        the atomic name
+     * @param obj
+     *        the object bound to it
+     * @return the element
+     * @throws NamingException
+     *         if the element couldn't be created
+     */
+    protected abstract T element(String name, Object obj) throws NamingException;
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.naming.NamingEnumeration#hasMore()
+     */
+    @Override
+    public final boolean hasMore() {
+        return entries.hasNext();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.util.Enumeration#hasMoreElements()
+     */
+    @Override
+    public final boolean hasMoreElements() {
+        return entries.hasNext();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.naming.NamingEnumeration#next()
+     */
+    @Override
+    public final T next() throws NamingException {
+        final Map.Entry<String, Object> entry = entries.next();
+        return element(entry.getKey(), entry.getValue());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.util.Enumeration#nextElement()
+     */
+    @Override
+    public final T nextElement() {
+        try {
+            return next();
+        } catch (final NamingException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.naming.NamingEnumeration#close()
+     */
+    @Override
+    public final void close() {
+        // nothing to release
+    }
+}
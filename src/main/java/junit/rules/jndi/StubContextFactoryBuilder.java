@@ -0,0 +1,116 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules.jndi;
+
+import java.util.Hashtable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.naming.Context;
+import javax.naming.NamingException;
+import javax.naming.spi.InitialContextFactory;
+import javax.naming.spi.InitialContextFactoryBuilder;
+import javax.naming.spi.NamingManager;
+
+/**
+ * The {@link InitialContextFactoryBuilder} for all {@link StubJndiContext}s, installed once per JVM, that routes each
+ * new {@link javax.naming.InitialContext} to the {@link StubJndiContext} of the current test. It's also the only
+ * {@link InitialContextFactory}, since {@link javax.naming.InitialContext} asks for a factory every time it's created.
+ *
+ * @author Alistair A. Israel
+ * @since 0.6
+ */
+final class StubContextFactoryBuilder implements InitialContextFactoryBuilder, InitialContextFactory {
+
+    private static final InheritableThreadLocal<StubJndiContext> THREAD_CONTEXT =
+            new InheritableThreadLocal<StubJndiContext>();
+
+    private static final List<StubJndiContext> SET_UP = new CopyOnWriteArrayList<StubJndiContext>();
+
+    /**
+     * Use {@link #setUp(StubJndiContext)}.
+     */
+    private StubContextFactoryBuilder() {
+        // noop
+    }
+
+    /**
+     * @param stubJndiContext
+     *        the {@link StubJndiContext} for this thread, and threads it starts
+     */
+    static void applied(final StubJndiContext stubJndiContext) {
+        THREAD_CONTEXT.set(stubJndiContext);
+    }
+
+    /**
+     * Installs the builder, if no builder has been installed yet.
+     *
+     * @param stubJndiContext
+     *        a {@link StubJndiContext} that has been set up
+     * @throws NamingException
+     *         if the builder couldn't be installed
+     */
+    static synchronized void setUp(final StubJndiContext stubJndiContext) throws NamingException {
+        SET_UP.add(stubJndiContext);
+        if (!NamingManager.hasInitialContextFactoryBuilder()) {
+            NamingManager.setInitialContextFactoryBuilder(new StubContextFactoryBuilder());
+        }
+    }
+
+    /**
+     * @param stubJndiContext
+     *        a {@link StubJndiContext} that has been torn down
+     */
+    static void tearDown(final StubJndiContext stubJndiContext) {
+        SET_UP.remove(stubJndiContext);
+    }
+
+    /**
+     * @return the {@link StubJndiContext} last applied on the current thread (or the thread that started it) if it's
+     *         still set up, otherwise the only {@link StubJndiContext} set up
+     * @throws NamingException
+     *         if there is none, or it's ambiguous
+     */
+    static StubJndiContext forCurrentThread() throws NamingException {
+        final StubJndiContext threadContext = THREAD_CONTEXT.get();
+        if (threadContext != null && SET_UP.contains(threadContext)) {
+            return threadContext;
+        }
+        final Object[] setUp = SET_UP.toArray();
+        if (setUp.length == 1) {
+            return (StubJndiContext) setUp[0];
+        }
+        if (setUp.length == 0) {
+            throw new NamingException("No StubJndiContext has been set up");
+        }
+        throw new NamingException(setUp.length + " StubJndiContexts are set up, and none was applied on thread \""
+                + Thread.currentThread().getName() + "\" or the thread that started it");
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.naming.spi.InitialContextFactoryBuilder#createInitialContextFactory(java.util.Hashtable)
+     */
+    @Override
+    public InitialContextFactory createInitialContextFactory(final Hashtable<?, ?> environment)
+            throws NamingException {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see javax.naming.spi.InitialContextFactory#getInitialContext(java.util.Hashtable)
+     */
+    @Override
+    public Context getInitialContext(final Hashtable<?, ?> environment) throws NamingException {
+        return forCurrentThread().newInitialContext(environment);
+    }
+}
@@ -8,74 +8,286 @@
  */
 package junit.rules.jndi;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Hashtable;
-import java.util.Map;
+import java.util.List;
 import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.naming.Binding;
+import javax.naming.CompoundName;
 import javax.naming.Context;
 import javax.naming.Name;
 import javax.naming.NameClassPair;
+import javax.naming.NameNotFoundException;
 import javax.naming.NameParser;
 import javax.naming.NamingEnumeration;
 import javax.naming.NamingException;
-import javax.naming.spi.InitialContextFactory;
-import javax.naming.spi.InitialContextFactoryBuilder;
-import javax.naming.spi.NamingManager;
+import javax.naming.NotContextException;
 
+import junit.rules.Snapshottable;
 import junit.rules.TestFixture;
 
+import org.junit.runner.Description;
+
 /**
- * A 'stub' JNDI Context backed by a simple {@link Map}, useful only for unit testing. This implementation is
- * <em>not</em> thread-safe, and should <em>not</em> be used in production. Consider using Spring's SimpleNamingContext
- * for a more robust implementation with more features.
+ * <p>
+ * A 'stub' JNDI Context backed by a simple tree of {@link java.util.Map}s, useful only for unit testing. It should
+ * <em>not</em> be used in production. Consider using Spring's SimpleNamingContext for a more robust implementation
+ * with more features.
+ * </p>
+ * <p>
+ * Names are {@code /} separated, and subcontexts are supported, so {@code java:comp/env/jdbc/dataSource} is
+ * {@code dataSource} in the {@code jdbc} subcontext of {@code env} of {@code java:comp}. Binding a compound name creates
+ * any subcontexts along it that don't exist yet, so there is no need to create them first.
+ * </p>
+ * <p>
+ * It is, however, thread-safe. The bindings are an immutable tree that is replaced, never changed, on every bind, so
+ * lookups take no locks and always see a consistent set of bindings, and {@code bind()}, {@code rebind()} and
+ * {@code rename()} are atomic. This suits tests (and load tests) that do many lookups and few binds.
+ * {@code list()} and {@code listBindings()} enumerate a snapshot, lazily.
+ * </p>
+ * <p>
+ * Objects that are expensive to create, but seldom looked up, can be bound with {@link #bindLazily(String, Callable)}
+ * or {@link #bindPrototype(String, Callable)}. {@link javax.naming.Reference}s are bound lazily too: the object is
+ * created by the reference's {@link javax.naming.spi.ObjectFactory} the first time it's looked up. Many bindings
+ * (say, those of an application server) can be bound at once from a descriptor with {@link #bindAll(String)}.
+ * </p>
+ * <p>
+ * The JVM only lets one {@link javax.naming.spi.InitialContextFactoryBuilder} be installed, ever, so the one installed
+ * by the first {@link StubJndiContext} routes each new {@link javax.naming.InitialContext} to the bindings of the
+ * {@link StubJndiContext} applied to the current test: the one last applied on the current thread, or on the thread
+ * that started it. Other threads (say, of a pool created before the test) get the only {@link StubJndiContext} set
+ * up, if there is only one. So test classes run in parallel (see {@link junit.rules.ParallelSuite}) each get their own
+ * bindings.
+ * </p>
+ * <p>
+ * Lookups are counted, per name, along with their latency and (sampled) callers, see {@link #getLookupMetrics()}. The
+ * most looked up names are logged at tearDown().
+ * </p>
  *
  * @author Alistair.Israel
  */
-public class StubJndiContext extends TestFixture {
+public class StubJndiContext extends TestFixture implements Snapshottable {
 
     private static final Logger logger = Logger.getLogger(StubJndiContext.class.getCanonicalName());
 
-    private final Map<String, Object> boundObjects = new HashMap<String, Object>();
+    private static final NameParser NAME_PARSER = new StubNameParser();
+
+    /**
+     * Shared by every context created without an environment. Environments are copied on write, never changed.
+     */
+    private static final Hashtable<String, Object> NO_ENVIRONMENT = new Hashtable<String, Object>();
+
+    private final AtomicReference<Namespace> root = new AtomicReference<Namespace>(Namespace.EMPTY);
+
+    private volatile Namespace snapshot = Namespace.EMPTY;
+
+    private volatile boolean closed;
 
-    private boolean closed;
+    private final LookupMetrics metrics = new LookupMetrics();
 
     /**
-     * The {@link InitialContextFactoryBuilder} for our {@link StubContext}
-     *
-     * @author Alistair A. Israel
+     * @param environment
+     *        the environment, may be {@code null}
+     * @return a new initial context for these bindings
      */
-    private class StubContextFactoryBuilder implements InitialContextFactoryBuilder {
+    final Context newInitialContext(final Hashtable<?, ?> environment) {
+        return new StubContext(copyOf(environment), Collections.<String>emptyList());
+    }
+
+    /**
+     * Parses {@code /} separated, left to right, compound names. There's only ever one.
+     */
+    private static final class StubNameParser implements NameParser {
+
+        private final Properties syntax = new Properties();
+
+        /**
+         * Sets up the syntax.
+         */
+        StubNameParser() {
+            syntax.setProperty("jndi.syntax.direction", "left_to_right");
+            syntax.setProperty("jndi.syntax.separator", "/");
+        }
 
         /**
          * {@inheritDoc}
          *
-         * @see javax.naming.spi.InitialContextFactoryBuilder#createInitialContextFactory(java.util.Hashtable)
+         * @see javax.naming.NameParser#parse(java.lang.String)
          */
         @Override
-        public InitialContextFactory createInitialContextFactory(final Hashtable<?, ?> environment)
-                throws NamingException {
-            return new InitialContextFactory() {
+        public Name parse(final String name) throws NamingException {
+            return new CompoundName(name, syntax);
+        }
+    }
+
+    /**
+     * Changes the bindings, atomically.
+     */
+    private abstract static class Update {
+
+        /**
+         * @param namespace
+         *        the current bindings
+         * @return the new bindings
+         * @throws NamingException
+         *         if the change can't be made
+         */
+        abstract Namespace apply(Namespace namespace) throws NamingException;
+    }
+
+    /**
+     * @param update
+     *        the change to make to the bindings, retried until no other thread changed them in the meantime
+     * @throws NamingException
+     *         if the change can't be made
+     */
+    private void update(final Update update) throws NamingException {
+        while (true) {
+            final Namespace before = root.get();
+            final Namespace after = update.apply(before);
+            if (after == before || root.compareAndSet(before, after)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param name
+     *        the name to bind to, any subcontexts along it are created as needed
+     * @param obj
+     *        the object to bind
+     */
+    public final void bind(final String name, final Object obj) {
+        put(name, LazyBinding.of(obj));
+        if (logger.isLoggable(Level.FINEST)) {
+            logger.finest("Bound " + identify(obj) + " to \"" + name + "\"");
+        }
+    }
+
+    /**
+     * Routes {@link javax.naming.InitialContext}s created on this thread, and threads it starts, to this
+     * {@link StubJndiContext}.
+     *
+     * @param description
+     *        the {@link Description}
+     *
+     * @see junit.rules.TestFixture#inspect(org.junit.runner.Description)
+     */
+    @Override
+    protected final void inspect(final Description description) {
+        StubContextFactoryBuilder.applied(this);
+    }
+
+    /**
+     * @param name
+     *        the name to bind to, any subcontexts along it are created as needed
+     * @param factory
+     *        creates the object the first time it's looked up, it's the same object from then on
+     * @since 0.6
+     */
+    public final void bindLazily(final String name, final Callable<?> factory) {
+        put(name, LazyBinding.singleton(factory));
+    }
+
+    /**
+     * @param name
+     *        the name to bind to, any subcontexts along it are created as needed
+     * @param factory
+     *        creates a new object every time it's looked up
+     * @since 0.6
+     */
+    public final void bindPrototype(final String name, final Callable<?> factory) {
+        put(name, LazyBinding.prototype(factory));
+    }
+
+    /**
+     * Binds everything in a descriptor on the classpath, all at once. See {@link JndiDescriptor} for the format. The
+     * descriptor is only read the first time, so this is cheap enough to call before every test.
+     *
+     * <pre>
+     * java\:comp/env/jdbc/appDS = derby:app
+     * java\:comp/env/maxRetries = int:3
+     * </pre>
+     *
+     * @param resource
+     *        the descriptor's name on the classpath, in the XML properties format if it ends with {@code .xml}
+     * @since 0.6
+     */
+    public final void bindAll(final String resource) {
+        final JndiDescriptor descriptor = JndiDescriptor.load(resource);
+        try {
+            update(new Update() {
                 @Override
-                public Context getInitialContext(final Hashtable<?, ?> environment) throws NamingException {
-                    return new StubContext(environment);
+                Namespace apply(final Namespace namespace) throws NamingException {
+                    return namespace.bindAll(descriptor.bindings());
                 }
-            };
+            });
+        } catch (final NamingException e) {
+            throw new IllegalArgumentException(resource + ": " + e.getMessage(), e);
         }
+        logger.fine("Bound " + descriptor.size() + " names from " + resource);
     }
 
     /**
      * @param name
      *        the name to bind to
+     * @param value
+     *        the object, or {@link LazyBinding}, to bind
+     */
+    private void put(final String name, final Object value) {
+        try {
+            update(new Update() {
+                @Override
+                Namespace apply(final Namespace namespace) throws NamingException {
+                    return namespace.bind(parse(name), value, true);
+                }
+            });
+        } catch (final NamingException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the lookups made so far (since setUp())
+     * @since 0.6
+     */
+    public final LookupMetrics getLookupMetrics() {
+        return metrics;
+    }
+
+    /**
      * @param obj
-     *        the object to bind
+     *        a bound object, may be {@code null}
+     * @return its class name and identity hash code, for logging
      */
-    public final void bind(final String name, final Object obj) {
-        boundObjects.put(name, obj);
-        logger.finest("Bound " + obj.getClass().getCanonicalName() + "@" + System.identityHashCode(obj) + " to \""
-                + name + "\"");
+    private static String identify(final Object obj) {
+        if (obj == null) {
+            return "null";
+        }
+        return obj.getClass().getCanonicalName() + "@" + System.identityHashCode(obj);
+    }
+
+    /**
+     * @param obj
+     *        a bound object
+     * @return the class name of the object (without creating it, if it's bound lazily)
+     */
+    private static String classNameOf(final Object obj) {
+        if (obj instanceof Namespace) {
+            return Context.class.getName();
+        }
+        if (obj instanceof LazyBinding) {
+            return ((LazyBinding) obj).getClassName();
+        }
+        return obj.getClass().getName();
     }
 
     /**
@@ -86,14 +298,60 @@ public class StubJndiContext extends TestFixture {
     @Override
     protected final void setUp() throws Throwable {
         logger.info("Activating stub JNDI context");
-        if (!NamingManager.hasInitialContextFactoryBuilder()) {
-            try {
-                NamingManager.setInitialContextFactoryBuilder(new StubContextFactoryBuilder());
-            } catch (final NamingException e) {
-                throw new RuntimeException(e.getClass().getCanonicalName()
-                        + " attempting to activate StubJndiContextBuilder", e);
-            }
+        metrics.reset();
+        try {
+            StubContextFactoryBuilder.setUp(this);
+        } catch (final NamingException e) {
+            throw new RuntimeException(e.getClass().getCanonicalName()
+                    + " attempting to activate StubJndiContextBuilder", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see junit.rules.TestFixture#tearDown()
+     */
+    @Override
+    protected final void tearDown() throws Throwable {
+        StubContextFactoryBuilder.tearDown(this);
+        if (metrics.getTotalLookups() > 0) {
+            logger.info(metrics.toReport());
         }
+        logger.info("Deactivated stub JNDI context");
+    }
+
+    /**
+     * Unbinds all objects bound so far.
+     *
+     * @throws Throwable
+     *         if reset fails
+     * @see junit.rules.TestFixture#reset()
+     */
+    @Override
+    protected final void reset() throws Throwable {
+        root.set(Namespace.EMPTY);
+        closed = false;
+    }
+
+    /**
+     * Remembers the objects bound so far.
+     *
+     * @see junit.rules.Snapshottable#snapshot()
+     */
+    @Override
+    public final void snapshot() {
+        snapshot = root.get();
+    }
+
+    /**
+     * Binds exactly the objects that were bound at the last {@link #snapshot()}.
+     *
+     * @see junit.rules.Snapshottable#restore()
+     */
+    @Override
+    public final void restore() {
+        root.set(snapshot);
     }
 
     /**
@@ -104,23 +362,263 @@ public class StubJndiContext extends TestFixture {
     }
 
     /**
-     * Our internal, stub JNDI context.
+     * @param name
+     *        a {@code /} separated name
+     * @return its atomic names, without empty ones
+     */
+    static List<String> parse(final String name) {
+        final List<String> path = new ArrayList<String>();
+        int start = 0;
+        while (start <= name.length()) {
+            int end = name.indexOf('/', start);
+            if (end < 0) {
+                end = name.length();
+            }
+            if (end > start) {
+                path.add(name.substring(start, end));
+            }
+            start = end + 1;
+        }
+        return path;
+    }
+
+    /**
+     * @param environment
+     *        an environment, may be {@code null}
+     * @return a copy of the environment, which must not be changed
+     */
+    private static Hashtable<String, Object> copyOf(final Hashtable<?, ?> environment) {
+        if (environment == null || environment.isEmpty()) {
+            return NO_ENVIRONMENT;
+        }
+        final Hashtable<String, Object> copy = new Hashtable<String, Object>();
+        if (environment != null) {
+            for (final Entry<?, ?> entry : environment.entrySet()) {
+                copy.put(entry.getKey().toString(), entry.getValue());
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Our internal, stub JNDI context, for the root or a subcontext. Its environment is shared with the contexts it
+     * creates, and copied on write.
      */
     private class StubContext implements Context {
 
-        private final Hashtable<String, Object> environment;
+        private volatile Hashtable<String, Object> environment;
+
+        private final List<String> contextPath;
 
         /**
          * @param environment
-         *        this context's environment
+         *        this context's environment, which must not be changed
+         * @param contextPath
+         *        the path of this context from the root
+         */
+        public StubContext(final Hashtable<String, Object> environment, final List<String> contextPath) {
+            this.environment = environment;
+            this.contextPath = contextPath;
+        }
+
+        /**
+         * @param name
+         *        a name relative to this context
+         * @return the path of the name from the root
+         */
+        private List<String> pathOf(final String name) {
+            final List<String> path = new ArrayList<String>(contextPath);
+            path.addAll(parse(name));
+            return path;
+        }
+
+        /**
+         * @param name
+         *        a name relative to this context
+         * @return the path of the name from the root
+         */
+        private List<String> pathOf(final Name name) {
+            final List<String> path = new ArrayList<String>(contextPath);
+            for (int i = 0; i < name.size(); ++i) {
+                if (name.get(i).length() > 0) {
+                    path.add(name.get(i));
+                }
+            }
+            return path;
+        }
+
+        /**
+         * @param path
+         *        a path from the root
+         * @return the object bound to it, or a {@link StubContext} if it's a subcontext
+         * @throws NamingException
+         *         if nothing is bound to it
+         */
+        private Object lookup(final List<String> path) throws NamingException {
+            final long start = System.nanoTime();
+            final Object obj;
+            try {
+                obj = root.get().lookup(path);
+            } catch (final NameNotFoundException e) {
+                metrics.record(Namespace.join(path), start, false);
+                throw e;
+            }
+            metrics.record(Namespace.join(path), start, true);
+            return resolve(path, obj);
+        }
+
+        /**
+         * @param path
+         *        a path from the root
+         * @param obj
+         *        the object bound to it
+         * @return the object (created, if it's bound lazily), or a {@link StubContext} if it's a subcontext
+         * @throws NamingException
+         *         if a lazily bound object couldn't be created
+         */
+        private Object resolve(final List<String> path, final Object obj) throws NamingException {
+            if (obj instanceof Namespace) {
+                return new StubContext(environment, path);
+            }
+            if (obj instanceof LazyBinding) {
+                return ((LazyBinding) obj).get(environment);
+            }
+            return obj;
+        }
+
+        /**
+         * @param path
+         *        a path from the root
+         * @param obj
+         *        the object to bind
+         * @param overwrite
+         *        {@code true} to replace any object already bound
+         * @throws NamingException
+         *         if something is already bound (and not {@code overwrite})
          */
-        public StubContext(final Hashtable<?, ?> environment) {
-            this.environment = new Hashtable<String, Object>();
-            if (environment != null && !environment.isEmpty()) {
-                for (final Entry<?, ?> entry : environment.entrySet()) {
-                    this.environment.put(entry.getKey().toString(), entry.getValue());
+        private void bind(final List<String> path, final Object obj, final boolean overwrite) throws NamingException {
+            update(new Update() {
+                @Override
+                Namespace apply(final Namespace namespace) throws NamingException {
+                    return namespace.bind(path, LazyBinding.of(obj), overwrite);
+                }
+            });
+            if (logger.isLoggable(Level.FINEST)) {
+                logger.finest("Bound \"" + Namespace.join(path) + "\" to " + identify(obj));
+            }
+        }
+
+        /**
+         * @param path
+         *        a path from the root
+         * @throws NamingException
+         *         if the parent context doesn't exist
+         */
+        private void unbind(final List<String> path) throws NamingException {
+            update(new Update() {
+                @Override
+                Namespace apply(final Namespace namespace) throws NamingException {
+                    return namespace.unbind(path);
+                }
+            });
+        }
+
+        /**
+         * @param oldPath
+         *        the path an object is bound to
+         * @param newPath
+         *        the path to bind it to instead
+         * @throws NamingException
+         *         if nothing is bound to {@code oldPath}, or something already is to {@code newPath}
+         */
+        private void rename(final List<String> oldPath, final List<String> newPath) throws NamingException {
+            update(new Update() {
+                @Override
+                Namespace apply(final Namespace namespace) throws NamingException {
+                    return namespace.rename(oldPath, newPath);
+                }
+            });
+        }
+
+        /**
+         * @param path
+         *        the path of the subcontext to create
+         * @return the subcontext
+         * @throws NamingException
+         *         if something is already bound to the path
+         */
+        private Context createSubcontext(final List<String> path) throws NamingException {
+            update(new Update() {
+                @Override
+                Namespace apply(final Namespace namespace) throws NamingException {
+                    return namespace.bind(path, Namespace.EMPTY, false);
+                }
+            });
+            return new StubContext(environment, path);
+        }
+
+        /**
+         * @param path
+         *        the path of the subcontext to destroy
+         * @throws NamingException
+         *         if it is not an empty context
+         */
+        private void destroySubcontext(final List<String> path) throws NamingException {
+            update(new Update() {
+                @Override
+                Namespace apply(final Namespace namespace) throws NamingException {
+                    return namespace.destroySubcontext(path);
                 }
+            });
+        }
+
+        /**
+         * @param path
+         *        the path of a context
+         * @return its bindings' names and class names
+         * @throws NamingException
+         *         if it isn't a context
+         */
+        private NamingEnumeration<NameClassPair> list(final List<String> path) throws NamingException {
+            return new NamespaceEnumeration<NameClassPair>(namespaceAt(path)) {
+                @Override
+                protected NameClassPair element(final String name, final Object obj) {
+                    return new NameClassPair(name, classNameOf(obj));
+                }
+            };
+        }
+
+        /**
+         * @param path
+         *        the path of a context
+         * @return its bindings
+         * @throws NamingException
+         *         if it isn't a context
+         */
+        private NamingEnumeration<Binding> listBindings(final List<String> path) throws NamingException {
+            return new NamespaceEnumeration<Binding>(namespaceAt(path)) {
+                @Override
+                protected Binding element(final String name, final Object obj) throws NamingException {
+                    final List<String> childPath = new ArrayList<String>(path);
+                    childPath.add(name);
+                    return new Binding(name, resolve(childPath, obj));
+                }
+            };
+        }
+
+        /**
+         * @param path
+         *        the path of a context
+         * @return the context's {@link Namespace}
+         * @throws NamingException
+         *         if it isn't a context
+         */
+        private Namespace namespaceAt(final List<String> path) throws NamingException {
+            final Object obj = root.get().lookup(path);
+            if (!(obj instanceof Namespace)) {
+                throw new NotContextException(Namespace.join(path) + " is not a context");
             }
+            return (Namespace) obj;
         }
 
         /**
@@ -129,8 +627,12 @@ public class StubJndiContext extends TestFixture {
          * @see javax.naming.Context#addToEnvironment(java.lang.String, java.lang.Object)
          */
         @Override
-        public Object addToEnvironment(final String propName, final Object propVal) throws NamingException {
-            return environment.put(propName, propVal);
+        public synchronized Object addToEnvironment(final String propName, final Object propVal)
+                throws NamingException {
+            final Hashtable<String, Object> copy = new Hashtable<String, Object>(environment);
+            final Object previous = copy.put(propName, propVal);
+            environment = copy;
+            return previous;
         }
 
         /**
@@ -140,9 +642,7 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public void bind(final String name, final Object obj) throws NamingException {
-            boundObjects.put(name, obj);
-            logger.finest("Bound \"" + name + "\" to " + obj.getClass().getCanonicalName() + "@"
-                    + System.identityHashCode(obj));
+            bind(pathOf(name), obj, false);
         }
 
         /**
@@ -162,7 +662,13 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public String composeName(final String name, final String prefix) throws NamingException {
-            return prefix + name;
+            if (prefix.length() == 0) {
+                return name;
+            }
+            if (name.length() == 0) {
+                return prefix;
+            }
+            return prefix + "/" + name;
         }
 
         /**
@@ -172,7 +678,7 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public Context createSubcontext(final String name) throws NamingException {
-            throw notSupported();
+            return createSubcontext(pathOf(name));
         }
 
         /**
@@ -182,8 +688,7 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public void destroySubcontext(final String name) throws NamingException {
-            // TODO Auto-generated method stub
-
+            destroySubcontext(pathOf(name));
         }
 
         /**
@@ -193,7 +698,7 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public Hashtable<?, ?> getEnvironment() throws NamingException {
-            return this.environment;
+            return new Hashtable<String, Object>(environment);
         }
 
         /**
@@ -203,8 +708,7 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public NamingEnumeration<NameClassPair> list(final String name) throws NamingException {
-            // TODO Auto-generated method stub
-            return null;
+            return list(pathOf(name));
         }
 
         /**
@@ -214,7 +718,7 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public NamingEnumeration<Binding> listBindings(final String name) throws NamingException {
-            throw notSupported();
+            return listBindings(pathOf(name));
         }
 
         /**
@@ -224,12 +728,9 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public Object lookup(final String name) throws NamingException {
-            final Object o = boundObjects.get(name);
-            if (o != null) {
-                logger.finest("lookup(\"" + name + "\") returning " + o.getClass().getCanonicalName() + "@"
-                        + System.identityHashCode(o));
-            } else {
-                logger.finest("lookup(\"" + name + "\") returning null");
+            final Object o = lookup(pathOf(name));
+            if (logger.isLoggable(Level.FINEST)) {
+                logger.finest("lookup(\"" + name + "\") returning " + identify(o));
             }
             return o;
         }
@@ -241,7 +742,8 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public Object lookupLink(final String name) throws NamingException {
-            throw notSupported();
+            // no links, so the same as lookup()
+            return lookup(pathOf(name));
         }
 
         /**
@@ -251,7 +753,7 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public void rebind(final String name, final Object obj) throws NamingException {
-            boundObjects.put(name, obj);
+            bind(pathOf(name), obj, true);
         }
 
         /**
@@ -260,8 +762,14 @@ public class StubJndiContext extends TestFixture {
          * @see javax.naming.Context#removeFromEnvironment(java.lang.String)
          */
         @Override
-        public Object removeFromEnvironment(final String propName) throws NamingException {
-            return environment.remove(propName);
+        public synchronized Object removeFromEnvironment(final String propName) throws NamingException {
+            if (!environment.containsKey(propName)) {
+                return null;
+            }
+            final Hashtable<String, Object> copy = new Hashtable<String, Object>(environment);
+            final Object previous = copy.remove(propName);
+            environment = copy;
+            return previous;
         }
 
         /**
@@ -271,16 +779,7 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public void rename(final String oldName, final String newName) throws NamingException {
-            if (!boundObjects.containsKey(oldName)) {
-                throw new NamingException("StubJndiContext namme \"" + oldName + "\" not bound!");
-            }
-            if (boundObjects.containsKey(newName)) {
-                throw new NamingException("StubJndiContext name \"" + oldName + "\" already bound to object of type: "
-                        + boundObjects.get(newName).getClass().getCanonicalName());
-            }
-
-            final Object obj = boundObjects.remove(oldName);
-            boundObjects.put(newName, obj);
+            rename(pathOf(oldName), pathOf(newName));
         }
 
         /**
@@ -290,7 +789,7 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public void unbind(final String name) throws NamingException {
-            throw notSupported();
+            unbind(pathOf(name));
         }
 
         /**
@@ -300,7 +799,7 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public void bind(final Name name, final Object obj) throws NamingException {
-            throw notSupported();
+            bind(pathOf(name), obj, false);
         }
 
         /**
@@ -310,7 +809,8 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public Name composeName(final Name name, final Name prefix) throws NamingException {
-            throw notSupported();
+            final Name composed = (Name) prefix.clone();
+            return composed.addAll(name);
         }
 
         /**
@@ -320,7 +820,7 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public Context createSubcontext(final Name name) throws NamingException {
-            throw notSupported();
+            return createSubcontext(pathOf(name));
         }
 
         /**
@@ -330,7 +830,7 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public void destroySubcontext(final Name name) throws NamingException {
-            throw notSupported();
+            destroySubcontext(pathOf(name));
         }
 
         /**
@@ -340,7 +840,7 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public String getNameInNamespace() throws NamingException {
-            throw notSupported();
+            return Namespace.join(contextPath);
         }
 
         /**
@@ -350,7 +850,7 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public NameParser getNameParser(final Name name) throws NamingException {
-            throw notSupported();
+            return NAME_PARSER;
         }
 
         /**
@@ -360,7 +860,7 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public NameParser getNameParser(final String name) throws NamingException {
-            throw notSupported();
+            return NAME_PARSER;
         }
 
         /**
@@ -370,7 +870,7 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public NamingEnumeration<NameClassPair> list(final Name name) throws NamingException {
-            throw notSupported();
+            return list(pathOf(name));
         }
 
         /**
@@ -380,7 +880,7 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public NamingEnumeration<Binding> listBindings(final Name name) throws NamingException {
-            throw notSupported();
+            return listBindings(pathOf(name));
         }
 
         /**
@@ -390,7 +890,7 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public Object lookup(final Name name) throws NamingException {
-            throw notSupported();
+            return lookup(pathOf(name));
         }
 
         /**
@@ -400,7 +900,7 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public Object lookupLink(final Name name) throws NamingException {
-            throw notSupported();
+            return lookup(pathOf(name));
         }
 
         /**
@@ -410,7 +910,7 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public void rebind(final Name name, final Object obj) throws NamingException {
-            throw notSupported();
+            bind(pathOf(name), obj, true);
         }
 
         /**
@@ -420,7 +920,7 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public void rename(final Name oldName, final Name newName) throws NamingException {
-            throw notSupported();
+            rename(pathOf(oldName), pathOf(newName));
         }
 
         /**
@@ -430,7 +930,7 @@ public class StubJndiContext extends TestFixture {
          */
         @Override
         public void unbind(final Name name) throws NamingException {
-            throw notSupported();
+            unbind(pathOf(name));
         }
 
     }
@@ -469,9 +969,6 @@ public class StubJndiContext extends TestFixture {
         // Unwind past unwindStackTrace() and notSupported()
         i += 2;
 
-        final int rest = len - i;
-        final StackTraceElement[] unwound = new StackTraceElement[rest];
-        System.arraycopy(st, i, unwound, 0, rest);
-        return unwound;
+        return Arrays.copyOfRange(st, i, len);
     }
 }
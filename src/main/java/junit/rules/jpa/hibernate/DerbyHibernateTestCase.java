@@ -23,6 +23,7 @@ import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.PersistenceContext;
 
+import junit.rules.ExclusiveResources;
 import junit.rules.dbunit.DbUnitUtil;
 import junit.rules.dbunit.FixturesUtil;
 
@@ -42,6 +43,7 @@ import org.slf4j.LoggerFactory;
 /**
  * @author Alistair A. Israel
  */
+@ExclusiveResources(ExclusiveResources.DERBY_TEST)
 public class DerbyHibernateTestCase {
 
     private static final Logger logger = LoggerFactory.getLogger(HibernatePersistenceContext.class);
@@ -17,14 +17,12 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
-import javax.persistence.PersistenceContext;
 
+import junit.rules.ExclusiveResources;
 import junit.rules.TestFixture;
-import junit.rules.dbunit.Fixtures;
-import junit.rules.util.Reflection;
+import junit.rules.index.AnnotationIndex;
 
 import org.apache.derby.jdbc.EmbeddedDriver;
 import org.dbunit.JdbcDatabaseTester;
@@ -41,6 +39,7 @@ import org.slf4j.LoggerFactory;
  * @author Alistair A. Israel
  * @since 0.3
  */
+@ExclusiveResources(ExclusiveResources.DERBY_TEST)
 public class HibernatePersistenceContext extends TestFixture implements junit.rules.jpa.PersistenceContext {
 
     private static final Logger logger = LoggerFactory.getLogger(HibernatePersistenceContext.class);
@@ -69,28 +68,25 @@ public class HibernatePersistenceContext extends TestFixture implements junit.ru
      */
     @Override
     public final void injectAndPostConstruct(final Object object) {
-        final Class<? extends Object> clazz = object.getClass();
-        for (final Field field : clazz.getDeclaredFields()) {
-            if (field.isAnnotationPresent(PersistenceContext.class)) {
-                final Class<?> type = field.getType();
-                if (type.equals(EntityManager.class)) {
-                    set(field).of(object).to(entityManager);
-                } else {
-                    logger.warn("Found field \"{}\" annotated with @PersistenceContext but is of type {}", field
-                            .getName(), type.getName());
-                }
+        activate();
+        final AnnotationIndex index = AnnotationIndex.of(object.getClass());
+        for (final Field field : index.getPersistenceContextFields()) {
+            final Class<?> type = field.getType();
+            if (type.equals(EntityManager.class)) {
+                set(field).of(object).to(entityManager);
+            } else {
+                logger.warn("Found field \"{}\" annotated with @PersistenceContext but is of type {}", field
+                        .getName(), type.getName());
             }
         }
 
-        for (final Method method : clazz.getDeclaredMethods()) {
-            if (method.isAnnotationPresent(PostConstruct.class)) {
-                final int nParameters = method.getParameterTypes().length;
-                if (nParameters == 0) {
-                    invoke(method).on(object);
-                } else {
-                    logger.warn("Found method \"{}\" annotated @PostConstruct "
-                            + "but don't know how to invoke with {} parameters", method.getName(), nParameters);
-                }
+        for (final Method method : index.getPostConstructMethods()) {
+            final int nParameters = method.getParameterTypes().length;
+            if (nParameters == 0) {
+                invoke(method).on(object);
+            } else {
+                logger.warn("Found method \"{}\" annotated @PostConstruct "
+                        + "but don't know how to invoke with {} parameters", method.getName(), nParameters);
             }
         }
     }
@@ -102,23 +98,11 @@ public class HibernatePersistenceContext extends TestFixture implements junit.ru
      */
     @Override
     protected final void inspect(final Description description) {
-        final Class<? extends Object> testClass = description.getTestClass();
-        if (testClass.isAnnotationPresent(Fixtures.class)) {
-            addFixturesFromAnnotation(testClass.getAnnotation(Fixtures.class));
-        }
-        final Method method = Reflection.quietlyGetMethod(testClass, description.getMethodName());
-        if (method.isAnnotationPresent(Fixtures.class)) {
-            addFixturesFromAnnotation(method.getAnnotation(Fixtures.class));
-        }
-    }
-
-    /**
-     * @param annotation
-     *        the {@link Fixtures} annotation
-     */
-    private void addFixturesFromAnnotation(final Fixtures annotation) {
-        for (final String fixtureName : annotation.value()) {
-            fixtureNames.add(fixtureName);
+        final AnnotationIndex index = AnnotationIndex.of(description.getTestClass());
+        fixtureNames.addAll(index.getFixtures());
+        final String methodName = description.getMethodName();
+        if (methodName != null) {
+            fixtureNames.addAll(index.getFixtures(methodName));
         }
     }
 
@@ -204,6 +188,7 @@ public class HibernatePersistenceContext extends TestFixture implements junit.ru
      * @see javax.persistence.EntityManagerFactory#createEntityManager()
      */
     public final EntityManager getEntityManager() {
+        activate();
         return this.entityManager;
     }
 
@@ -14,13 +14,12 @@ import junit.rules.jpa.hibernate.DerbyHibernateTestCaseTest;
 import junit.rules.jpa.hibernate.HibernatePersistenceContextTest;
 
 import org.junit.runner.RunWith;
-import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 /**
  * @author Alistair A. Israel
  */
-@RunWith(Suite.class)
+@RunWith(ParallelSuite.class)
 @SuiteClasses({
     HttpServerRuleTest.class,
     JettyServerRuleTest.class,
@@ -0,0 +1,180 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * JUnit test for {@link BackgroundTearDown}.
+ *
+ * @author Alistair A. Israel
+ */
+public final class BackgroundTearDownTest {
+
+    private static final Statement NOOP = new Statement() {
+        @Override
+        public void evaluate() {
+            // noop
+        }
+    };
+
+    /**
+     * @param fixture
+     *        the fixture to evaluate
+     * @throws Throwable
+     *         on exception
+     */
+    private static void evaluate(final TestFixture fixture) throws Throwable {
+        fixture.apply(NOOP, Description.createTestDescription(BackgroundTearDownTest.class, "test")).evaluate();
+    }
+
+    /**
+     * The test thread shouldn't wait for a background tearDown, but {@link BackgroundTearDown#await()} should.
+     *
+     * @throws Throwable
+     *         should never happen
+     */
+    @Test
+    public void testTearDownRunsInBackground() throws Throwable {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicBoolean tornDown = new AtomicBoolean();
+        final TestFixture fixture = new TestFixture() {
+            @Override
+            protected void tearDown() throws Throwable {
+                release.await();
+                tornDown.set(true);
+            }
+        };
+        fixture.setTearDownInBackground(true);
+        evaluate(fixture);
+        assertFalse(tornDown.get());
+
+        release.countDown();
+        BackgroundTearDown.await();
+        assertTrue(tornDown.get());
+    }
+
+    /**
+     * Background tearDown failures should be reported by {@link BackgroundTearDown#await()}, once.
+     *
+     * @throws Throwable
+     *         should never happen
+     */
+    @Test
+    public void testFailuresAreReportedByAwait() throws Throwable {
+        final TestFixture fixture = new TestFixture() {
+            @Override
+            protected void tearDown() throws Throwable {
+                throw new IllegalStateException("boom");
+            }
+        };
+        fixture.setTearDownInBackground(true);
+        evaluate(fixture);
+        try {
+            BackgroundTearDown.await();
+            fail("Expected await() to report the tearDown failure");
+        } catch (final IllegalStateException e) {
+            assertEquals("boom", e.getMessage());
+        }
+        BackgroundTearDown.await();
+    }
+
+    /**
+     * A background tearDown failure should be reported the next time the same fixture is applied, before its setUp.
+     *
+     * @throws Throwable
+     *         should never happen
+     */
+    @Test
+    public void testFailuresAreReportedBySameFixture() throws Throwable {
+        final AtomicInteger setUps = new AtomicInteger();
+        final TestFixture fixture = new TestFixture() {
+            @Override
+            protected void setUp() {
+                setUps.incrementAndGet();
+            }
+
+            @Override
+            protected void tearDown() throws Throwable {
+                throw new IllegalStateException("boom");
+            }
+        };
+        fixture.setTearDownInBackground(true);
+        evaluate(fixture);
+        try {
+            // waits for the first tearDown, since it's the same fixture
+            evaluate(fixture);
+            fail("Expected the fixture to report its tearDown failure");
+        } catch (final IllegalStateException e) {
+            assertEquals("boom", e.getMessage());
+        }
+        assertEquals(1, setUps.get());
+        BackgroundTearDown.await();
+    }
+
+    /**
+     * Completed teardowns shouldn't be kept around until the next {@link BackgroundTearDown#await()}.
+     *
+     * @throws Throwable
+     *         should never happen
+     */
+    @Test
+    public void testCompletedTearDownsArePruned() throws Throwable {
+        final TestFixture fixture = new TestFixture();
+        fixture.setTearDownInBackground(true);
+        for (int i = 0; i < 100; ++i) {
+            evaluate(fixture);
+        }
+        assertTrue(BackgroundTearDown.pendingCount() <= 1);
+        BackgroundTearDown.await();
+    }
+
+    /**
+     * A background tearDown failure shouldn't fail a test using some other fixture, only the barrier.
+     *
+     * @throws Throwable
+     *         should never happen
+     */
+    @Test
+    public void testFailuresAreNotReportedByOtherFixtures() throws Throwable {
+        final CountDownLatch failed = new CountDownLatch(1);
+        final TestFixture failing = new TestFixture() {
+            @Override
+            protected void tearDown() throws Throwable {
+                try {
+                    throw new IllegalStateException("boom");
+                } finally {
+                    failed.countDown();
+                }
+            }
+        };
+        failing.setTearDownInBackground(true);
+        evaluate(failing);
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        evaluate(new TestFixture());
+        try {
+            BackgroundTearDown.await();
+            fail("Expected await() to report the tearDown failure");
+        } catch (final IllegalStateException e) {
+            assertEquals("boom", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+
+/**
+ * JUnit test for {@link BenchmarkRule} and {@link LatencyHistogram}.
+ *
+ * @author Alistair A. Israel
+ */
+public final class BenchmarkRuleTest {
+
+    private static int runs;
+
+    /**
+     * Benchmarked tests.
+     */
+    public static final class Benchmarked {
+
+        /**
+         * The rule under test
+         */
+        @Rule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public final BenchmarkRule benchmark = new BenchmarkRule();
+
+        /**
+         * Counts its runs
+         */
+        @Test
+        @Benchmark(iterations = 20, warmUp = 5, p99 = 10000)
+        public void counted() {
+            ++runs;
+        }
+
+        /**
+         * @throws InterruptedException
+         *         should never happen
+         */
+        @Test
+        @Benchmark(iterations = 5, warmUp = 0, p50 = 1)
+        public void slow() throws InterruptedException {
+            Thread.sleep(20);
+        }
+    }
+
+    /**
+     * Should run warm-up and measured iterations, and pass within the threshold.
+     */
+    @Test
+    public void testIterations() {
+        runs = 0;
+        final Result result = new JUnitCore().run(Request.method(Benchmarked.class, "counted"));
+        assertEquals(0, result.getFailureCount());
+        assertEquals(25, runs);
+    }
+
+    /**
+     * Should fail when a percentile exceeds its threshold.
+     */
+    @Test
+    public void testThreshold() {
+        final Result result = new JUnitCore().run(Request.method(Benchmarked.class, "slow"));
+        assertEquals(1, result.getFailureCount());
+        assertTrue(result.getFailures().get(0).getMessage().contains("p50"));
+    }
+
+    /**
+     * Percentiles should be within 1% of the recorded values.
+     */
+    @Test
+    public void testHistogramPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1000; ++i) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(1000, histogram.getTotalCount());
+        assertEquals(1000, histogram.getMin());
+        assertEquals(1000000, histogram.getMax());
+        assertEquals(500000, histogram.getValueAtPercentile(50), 5000);
+        assertEquals(990000, histogram.getValueAtPercentile(99), 9900);
+        assertEquals(1000, histogram.getValueAtPercentile(0.01), 10);
+        histogram.record(42);
+        assertEquals(42, histogram.getMin());
+    }
+}
@@ -0,0 +1,180 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * JUnit test for {@link CompositeFixture}.
+ *
+ * @author Alistair A. Israel
+ */
+public final class CompositeFixtureTest {
+
+    private final List<String> events = new CopyOnWriteArrayList<String>();
+
+    /**
+     * Records its lifecycle in {@link CompositeFixtureTest#events}.
+     */
+    private class RecordingFixture extends TestFixture {
+
+        private final String name;
+
+        private final CountDownLatch latch;
+
+        /**
+         * @param name
+         *        the fixture name
+         * @param latch
+         *        counted down, then awaited, on setUp()
+         */
+        RecordingFixture(final String name, final CountDownLatch latch) {
+            this.name = name;
+            this.latch = latch;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see junit.rules.TestFixture#setUp()
+         */
+        @Override
+        protected void setUp() throws Throwable {
+            if (latch != null) {
+                latch.countDown();
+                assertTrue(name + " should run concurrently", latch.await(5, TimeUnit.SECONDS));
+            }
+            events.add("setUp " + name);
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see junit.rules.TestFixture#tearDown()
+         */
+        @Override
+        protected void tearDown() throws Throwable {
+            events.add("tearDown " + name);
+        }
+    }
+
+    /**
+     * @param fixture
+     *        the fixture to evaluate
+     * @throws Throwable
+     *         on exception
+     */
+    private void evaluate(final TestFixture fixture) throws Throwable {
+        fixture.apply(new Statement() {
+            @Override
+            public void evaluate() {
+                events.add("test");
+            }
+        }, Description.createTestDescription(CompositeFixtureTest.class, "test")).evaluate();
+    }
+
+    /**
+     * Independent fixtures should be set up concurrently, and dependencies respected.
+     *
+     * @throws Throwable
+     *         should never happen
+     */
+    @Test
+    public void testIndependentFixturesStartConcurrently() throws Throwable {
+        final CountDownLatch latch = new CountDownLatch(2);
+        final RecordingFixture a = new RecordingFixture("a", latch);
+        final RecordingFixture b = new RecordingFixture("b", latch);
+        final RecordingFixture c = new RecordingFixture("c", null);
+        evaluate(new CompositeFixture().add(a).add(b).add(c, a, b));
+
+        assertEquals(7, events.size());
+        assertEquals("setUp c", events.get(2));
+        assertEquals("test", events.get(3));
+        assertEquals("tearDown c", events.get(4));
+    }
+
+    /**
+     * If one fixture fails to set up, those already set up should be torn down, and dependents never started.
+     *
+     * @throws Throwable
+     *         should never happen
+     */
+    @Test
+    public void testFailedSetUpTearsDownStartedFixtures() throws Throwable {
+        final RecordingFixture a = new RecordingFixture("a", null);
+        final TestFixture failing = new TestFixture() {
+            @Override
+            protected void setUp() throws Throwable {
+                throw new IllegalStateException("boom");
+            }
+        };
+        final RecordingFixture c = new RecordingFixture("c", null);
+        try {
+            evaluate(new CompositeFixture().add(a).add(failing, a).add(c, failing));
+            fail("Expected setUp() to fail");
+        } catch (final IllegalStateException e) {
+            assertEquals("boom", e.getMessage());
+        }
+        assertEquals(2, events.size());
+        assertEquals("setUp a", events.get(0));
+        assertEquals("tearDown a", events.get(1));
+        assertFalse(events.contains("setUp c"));
+    }
+
+    /**
+     * A fixture can only depend on fixtures already added.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testDependenciesMustBeAddedFirst() {
+        new CompositeFixture().add(new TestFixture(), new TestFixture());
+    }
+
+    /**
+     * A lazy fixture should only be set up, and torn down, if something activates it.
+     *
+     * @throws Throwable
+     *         should never happen
+     */
+    @Test
+    public void testLazyFixturesAreHonoured() throws Throwable {
+        final RecordingFixture unused = new RecordingFixture("unused", null);
+        unused.setLazy(true);
+        final RecordingFixture used = new RecordingFixture("used", null);
+        used.setLazy(true);
+        final RecordingFixture user = new RecordingFixture("user", null) {
+            @Override
+            protected void setUp() throws Throwable {
+                used.activate();
+                super.setUp();
+            }
+        };
+        evaluate(new CompositeFixture().add(unused).add(used).add(user, used));
+
+        assertFalse(events.contains("setUp unused"));
+        assertFalse(events.contains("tearDown unused"));
+        assertEquals("setUp used", events.get(0));
+        assertEquals("setUp user", events.get(1));
+        assertEquals("test", events.get(2));
+        assertEquals("tearDown user", events.get(3));
+        assertEquals("tearDown used", events.get(4));
+        assertEquals(5, events.size());
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+
+/**
+ * JUnit test for {@link ConcurrentRule}.
+ *
+ * @author Alistair A. Israel
+ */
+public final class ConcurrentRuleTest {
+
+    private static final AtomicInteger RUNS = new AtomicInteger();
+
+    private static final Set<Thread> THREADS = Collections.synchronizedSet(new HashSet<Thread>());
+
+    /**
+     * Concurrent tests.
+     */
+    public static final class Stressed {
+
+        /**
+         * The rule under test
+         */
+        @Rule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public final ConcurrentRule concurrent = new ConcurrentRule();
+
+        /**
+         * Counts its runs and threads
+         */
+        @Test
+        @Concurrent(threads = 4, iterations = 10)
+        public void counted() {
+            RUNS.incrementAndGet();
+            THREADS.add(Thread.currentThread());
+        }
+
+        /**
+         * Fails every time
+         */
+        @Test
+        @Concurrent(threads = 3, iterations = 2, virtualThreads = true)
+        public void failing() {
+            RUNS.incrementAndGet();
+            throw new IllegalStateException("boom");
+        }
+    }
+
+    /**
+     * Should run the test on every thread, every iteration.
+     */
+    @Test
+    public void testRunsOnAllThreads() {
+        RUNS.set(0);
+        THREADS.clear();
+        final Result result = new JUnitCore().run(Request.method(Stressed.class, "counted"));
+        assertEquals(0, result.getFailureCount());
+        assertEquals(40, RUNS.get());
+        assertEquals(4, THREADS.size());
+    }
+
+    /**
+     * Should report every failure, not just the first.
+     */
+    @Test
+    public void testCollectsAllFailures() {
+        RUNS.set(0);
+        final Result result = new JUnitCore().run(Request.method(Stressed.class, "failing"));
+        assertEquals(6, RUNS.get());
+        assertEquals(6, result.getFailureCount());
+    }
+
+    /**
+     * Should leave thread contention monitoring as it found it.
+     */
+    @Test
+    public void testRestoresContentionMonitoring() {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        final boolean before = threads.isThreadContentionMonitoringEnabled();
+        new JUnitCore().run(Request.method(Stressed.class, "counted"));
+        assertEquals(before, threads.isThreadContentionMonitoringEnabled());
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import junit.rules.dbunit.Fixtures;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.internal.builders.AllDefaultPossibilitiesBuilder;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.Suite.SuiteClasses;
+
+/**
+ * JUnit test for {@link FixtureAffinityRunner} and {@link FixtureAffinitySuite}.
+ *
+ * @author Alistair A. Israel
+ */
+public final class FixtureAffinityRunnerTest {
+
+    private static final List<String> RUN = new ArrayList<String>();
+
+    /**
+     * Alternates between two fixture configurations.
+     */
+    public static final class Alternating {
+
+        /**
+         * Records its name
+         */
+        @Test
+        @Fixtures("a.xml")
+        public void a1() {
+            RUN.add("a");
+        }
+
+        /**
+         * Records its name
+         */
+        @Test
+        @Fixtures("b.xml")
+        public void b1() {
+            RUN.add("b");
+        }
+
+        /**
+         * Records its name
+         */
+        @Test
+        @Fixtures("a.xml")
+        public void a2() {
+            RUN.add("a");
+        }
+
+        /**
+         * Records its name
+         */
+        @Test
+        @Fixtures("b.xml")
+        public void b2() {
+            RUN.add("b");
+        }
+    }
+
+    /**
+     * Uses fixture x
+     */
+    @Fixtures("x.xml")
+    public static final class X1 {
+
+        /**
+         * Records its name
+         */
+        @Test
+        public void test() {
+            RUN.add("x");
+        }
+    }
+
+    /**
+     * Uses fixture y
+     */
+    @Fixtures("y.xml")
+    public static final class Y {
+
+        /**
+         * Records its name
+         */
+        @Test
+        public void test() {
+            RUN.add("y");
+        }
+    }
+
+    /**
+     * Uses fixture x, again
+     */
+    @Fixtures("x.xml")
+    public static final class X2 {
+
+        /**
+         * Records its name
+         */
+        @Test
+        public void test() {
+            RUN.add("x");
+        }
+    }
+
+    /**
+     * Builds plain fixtures.
+     */
+    private static final Callable<TestFixture> FACTORY = new Callable<TestFixture>() {
+        @Override
+        public TestFixture call() {
+            return new TestFixture();
+        }
+    };
+
+    /**
+     * Shares a fixture configured one way
+     */
+    public static final class SharesOne {
+
+        /**
+         * The shared fixture
+         */
+        @ClassRule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public static final SharedFixture<TestFixture> FIXTURE = FixturePool.shared("one", FACTORY);
+    }
+
+    /**
+     * Shares a fixture of the same type, configured another way
+     */
+    public static final class SharesTwo {
+
+        /**
+         * The shared fixture
+         */
+        @ClassRule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public static final SharedFixture<TestFixture> FIXTURE = FixturePool.shared("two", FACTORY);
+    }
+
+    /**
+     * The suite
+     */
+    @SuiteClasses({ X1.class, Y.class, X2.class })
+    public static final class AlternatingSuite {
+    }
+
+    /**
+     * Methods with the same fixtures should run one after the other.
+     *
+     * @throws Exception
+     *         should never happen
+     */
+    @Test
+    public void testRunnerGroupsMethods() throws Exception {
+        RUN.clear();
+        final FixtureAffinityRunner runner = new FixtureAffinityRunner(Alternating.class);
+        runner.run(new RunNotifier());
+
+        assertEquals(4, RUN.size());
+        assertEquals(RUN.get(0), RUN.get(1));
+        assertEquals(RUN.get(2), RUN.get(3));
+        assertEquals(2, runner.getRebuilds());
+    }
+
+    /**
+     * Classes with the same fixtures should run one after the other.
+     *
+     * @throws Throwable
+     *         should never happen
+     */
+    @Test
+    public void testSuiteGroupsClasses() throws Throwable {
+        RUN.clear();
+        final FixtureAffinitySuite suite = new FixtureAffinitySuite(AlternatingSuite.class,
+                new AllDefaultPossibilitiesBuilder(true));
+        suite.run(new RunNotifier());
+
+        assertEquals("[x, x, y]", RUN.toString());
+        assertEquals(2, suite.getRebuilds());
+        assertEquals(1, suite.getAvoidedRebuilds());
+    }
+
+    /**
+     * Static fixtures of the same type but with different keys should have different signatures.
+     */
+    @Test
+    public void testSignatureIncludesConfigurationKey() {
+        assertFalse(FixtureSignatures.of(SharesOne.class).equals(FixtureSignatures.of(SharesTwo.class)));
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import junit.rules.TestFixtureTest.CountingFixture;
+
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+
+/**
+ * JUnit test for {@link FixturePool}.
+ *
+ * @author Alistair A. Israel
+ */
+public final class FixturePoolTest {
+
+    private static final FixturePool POOL = new FixturePool();
+
+    private static final Callable<CountingFixture> FACTORY = new Callable<CountingFixture>() {
+        @Override
+        public CountingFixture call() {
+            return new CountingFixture();
+        }
+    };
+
+    /**
+     * First test class using the shared fixture
+     */
+    public static final class FirstUser {
+
+        /**
+         * The shared fixture
+         */
+        @ClassRule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public static final SharedFixture<CountingFixture> FIXTURE = POOL.share("counting", FACTORY);
+
+        /**
+         * The fixture should be set up
+         */
+        @Test
+        public void fixtureIsActive() {
+            assertTrue(FIXTURE.get().isActive());
+        }
+    }
+
+    /**
+     * Second test class using the shared fixture
+     */
+    public static final class SecondUser {
+
+        /**
+         * The shared fixture
+         */
+        @ClassRule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public static final SharedFixture<CountingFixture> FIXTURE = POOL.share("counting", FACTORY);
+
+        /**
+         * The fixture should be set up, and the same one the first test class used
+         */
+        @Test
+        public void fixtureIsShared() {
+            assertTrue(FIXTURE.get().isActive());
+            assertSame(FirstUser.FIXTURE.get(), FIXTURE.get());
+        }
+    }
+
+    /**
+     * Start with an empty pool
+     */
+    @Before
+    public void closePool() {
+        POOL.close();
+        POOL.setMaximumSize(FixturePool.DEFAULT_MAXIMUM_SIZE);
+        POOL.setIdleTimeout(FixturePool.DEFAULT_IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The fixture should be built once and survive between test classes.
+     */
+    @Test
+    public void testFixtureIsSharedAcrossClasses() {
+        final long hits = POOL.getHitCount();
+        final long misses = POOL.getMissCount();
+        final Result result = JUnitCore.runClasses(FirstUser.class, SecondUser.class);
+        assertEquals(0, result.getFailureCount());
+        assertEquals(1, POOL.size());
+        assertTrue(FirstUser.FIXTURE.get().isActive());
+        assertTrue(FirstUser.FIXTURE.get().isClassScoped());
+        assertEquals(hits + 1, POOL.getHitCount());
+        assertEquals(misses + 1, POOL.getMissCount());
+
+        POOL.close();
+        assertEquals(0, POOL.size());
+        assertFalse(FirstUser.FIXTURE.get().isActive());
+    }
+
+    /**
+     * Unreferenced fixtures above the maximum size should be evicted.
+     */
+    @Test
+    public void testEvictionWhenFull() {
+        POOL.setMaximumSize(0);
+        final long evictions = POOL.getEvictionCount();
+        final Result result = JUnitCore.runClasses(FirstUser.class);
+        assertEquals(0, result.getFailureCount());
+        assertEquals(0, POOL.size());
+        assertEquals(evictions + 1, POOL.getEvictionCount());
+        assertFalse(FirstUser.FIXTURE.get().isActive());
+    }
+
+    /**
+     * Fixtures idle for longer than the idle timeout should be evicted, even if nothing else is released.
+     *
+     * @throws InterruptedException
+     *         should never happen
+     */
+    @Test
+    public void testEvictionWhenIdle() throws InterruptedException {
+        POOL.setIdleTimeout(50, TimeUnit.MILLISECONDS);
+        final long evictions = POOL.getEvictionCount();
+        final Result result = JUnitCore.runClasses(FirstUser.class);
+        assertEquals(0, result.getFailureCount());
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (POOL.getEvictionCount() == evictions && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, POOL.size());
+        assertEquals(evictions + 1, POOL.getEvictionCount());
+        assertFalse(FirstUser.FIXTURE.get().isActive());
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * JUnit test for {@link FixtureTimeout}.
+ *
+ * @author Alistair A. Israel
+ */
+public final class FixtureTimeoutTest {
+
+    private static final CountDownLatch INTERRUPTED = new CountDownLatch(1);
+
+    /**
+     * Hangs in setUp() until interrupted.
+     */
+    @FixtureTimeout(setUp = 100)
+    public static final class HangingFixture extends TestFixture {
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see junit.rules.TestFixture#setUp()
+         */
+        @Override
+        protected void setUp() throws Throwable {
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (final InterruptedException e) {
+                INTERRUPTED.countDown();
+            }
+        }
+    }
+
+    /**
+     * A setUp() that misses its deadline should fail fast, with the stack of the stuck thread, and be interrupted.
+     *
+     * @throws Throwable
+     *         should never happen
+     */
+    @Test
+    public void testSetUpDeadline() throws Throwable {
+        final long start = System.nanoTime();
+        try {
+            new HangingFixture().apply(new Statement() {
+                @Override
+                public void evaluate() {
+                    fail("The test should not run");
+                }
+            }, Description.createTestDescription(FixtureTimeoutTest.class, "test")).evaluate();
+            fail("Expected FixtureTimeoutException");
+        } catch (final FixtureTimeoutException e) {
+            boolean inSetUp = false;
+            for (final StackTraceElement element : e.getStackTrace()) {
+                inSetUp |= HangingFixture.class.getName().equals(element.getClassName());
+            }
+            assertTrue(inSetUp);
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 10);
+        assertTrue(INTERRUPTED.await(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * A tearDown() failure within the deadline should be rethrown as is.
+     *
+     * @throws Throwable
+     *         should never happen
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testFailureWithinDeadline() throws Throwable {
+        final TestFixture fixture = new TestFixture() {
+            @Override
+            protected void tearDown() throws Throwable {
+                throw new IllegalStateException();
+            }
+        };
+        fixture.setTimeouts(0, 1, TimeUnit.SECONDS);
+        fixture.invokeTearDown();
+    }
+}
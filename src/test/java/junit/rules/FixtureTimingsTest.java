@@ -0,0 +1,121 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.rules.FixtureTimingAggregator.PhaseStatistics;
+
+import org.junit.After;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+
+/**
+ * JUnit test for {@link FixtureTimings}.
+ *
+ * @author Alistair A. Israel
+ */
+public final class FixtureTimingsTest {
+
+    /**
+     * A {@link TestFixture} of its own, so no other test's runs are counted.
+     */
+    public static final class TimedFixture extends TestFixture {
+    }
+
+    /**
+     * Uses {@link TimedFixture} as a {@link ClassRule}, reset after each of its three tests.
+     */
+    public static final class UsesTimedFixture {
+
+        /**
+         * The class-level fixture
+         */
+        @ClassRule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public static final TimedFixture FIXTURE = new TimedFixture();
+
+        /**
+         * Resets the fixture after each test
+         */
+        @Rule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public final TestRule reset = FIXTURE.resetAfterEachTest();
+
+        /**
+         * First test
+         */
+        @Test
+        public void first() {
+        }
+
+        /**
+         * Second test
+         */
+        @Test
+        public void second() {
+        }
+
+        /**
+         * Third test
+         */
+        @Test
+        public void third() {
+        }
+    }
+
+    private final List<FixturePhase> phases = new ArrayList<FixturePhase>();
+
+    private final FixtureTimingListener listener = new FixtureTimingListener() {
+        @Override
+        public void phaseCompleted(final Class<? extends TestFixture> fixtureClass, final Description description,
+                final FixturePhase phase, final long nanos) {
+            if (fixtureClass == TimedFixture.class) {
+                assertTrue(nanos >= 0);
+                phases.add(phase);
+            }
+        }
+    };
+
+    /**
+     * Remove our listener
+     */
+    @After
+    public void removeListener() {
+        FixtureTimings.removeListener(listener);
+    }
+
+    /**
+     * Each phase should be published to listeners, and aggregated.
+     */
+    @Test
+    public void testPhasesArePublished() {
+        FixtureTimings.addListener(listener);
+        FixtureTimings.getAggregator().clear();
+        JUnitCore.runClasses(UsesTimedFixture.class);
+
+        assertEquals(FixturePhase.INSPECT, phases.get(0));
+        assertEquals(FixturePhase.SET_UP, phases.get(1));
+        assertEquals(FixturePhase.RESET, phases.get(2));
+        assertEquals(FixturePhase.TEAR_DOWN, phases.get(phases.size() - 1));
+
+        final PhaseStatistics resets = FixtureTimings.getAggregator().getStatistics(TimedFixture.class,
+                FixturePhase.RESET);
+        assertEquals(3, resets.getCount());
+        assertTrue(FixtureTimings.getAggregator().getReport().contains(TimedFixture.class.getName()));
+    }
+}
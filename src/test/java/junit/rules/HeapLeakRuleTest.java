@@ -0,0 +1,123 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+
+/**
+ * JUnit test for {@link HeapLeakRule}.
+ *
+ * @author Alistair A. Israel
+ */
+public final class HeapLeakRuleTest {
+
+    private static final int MEGABYTE = 1024 * 1024;
+
+    private static final long BASE_HEAP = 64L * MEGABYTE;
+
+    private static final int ROUNDS = 10;
+
+    private static final Description LEAKY = Description.createTestDescription(HeapLeakRuleTest.class, "leaky");
+
+    /**
+     * Leaky and not so leaky tests.
+     */
+    public static final class Checked {
+
+        /**
+         * The rule under test
+         */
+        @Rule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public final HeapLeakRule heap = new HeapLeakRule();
+
+        /**
+         * Allocates, but doesn't retain, a megabyte per round
+         */
+        @Test
+        @HeapLeakCheck(rounds = 5, warmUp = 1)
+        public void notLeaky() {
+            assertEquals(MEGABYTE, new byte[MEGABYTE].length);
+        }
+
+        /**
+         * Collects garbage
+         */
+        @Test
+        @NoGcPause
+        public void collects() {
+            System.gc();
+        }
+    }
+
+    /**
+     * Should fail when the retained heap grows steadily, even with some noise. Uses synthetic samples, since how much of
+     * a real leak the heap figures show after garbage collection varies from run to run.
+     */
+    @Test
+    public void testSteadyGrowthFails() {
+        final long[] retained = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; ++i) {
+            retained[i] = BASE_HEAP + (long) i * MEGABYTE + (i % 2) * MEGABYTE / 4;
+        }
+        final HeapLeakRule rule = new HeapLeakRule();
+        try {
+            rule.checkGrowth(LEAKY, retained, 0);
+            fail("Expected AssertionError");
+        } catch (final AssertionError e) {
+            assertTrue(e.getMessage().contains("bytes per round"));
+        }
+        assertEquals(MEGABYTE, rule.getBytesPerRound(), MEGABYTE / 10);
+    }
+
+    /**
+     * Should pass when the retained heap jumps around without a trend, or grows by less than allowed.
+     */
+    @Test
+    public void testNoiseOrSlowGrowthPasses() {
+        final long[] noisy = new long[ROUNDS];
+        final long[] slow = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; ++i) {
+            noisy[i] = BASE_HEAP + (i % 2) * MEGABYTE;
+            slow[i] = BASE_HEAP + (long) i * MEGABYTE;
+        }
+        final HeapLeakRule rule = new HeapLeakRule();
+        rule.checkGrowth(LEAKY, noisy, 0);
+        rule.checkGrowth(LEAKY, slow, 2 * MEGABYTE);
+        assertEquals(MEGABYTE, rule.getBytesPerRound(), 1);
+    }
+
+    /**
+     * Should pass when garbage is collected.
+     */
+    @Test
+    public void testNoLeakPasses() {
+        final Result result = new JUnitCore().run(Request.method(Checked.class, "notLeaky"));
+        assertEquals(0, result.getFailureCount());
+    }
+
+    /**
+     * Should fail when the garbage collector runs during a {@link NoGcPause} test.
+     */
+    @Test
+    public void testGcPauseFails() {
+        final Result result = new JUnitCore().run(Request.method(Checked.class, "collects"));
+        assertEquals(1, result.getFailureCount());
+        assertTrue(result.getFailures().get(0).getMessage().contains("garbage collection"));
+    }
+}
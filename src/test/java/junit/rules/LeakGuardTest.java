@@ -0,0 +1,151 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+/**
+ * JUnit test for {@link LeakGuard} and {@link ResourceSnapshot}.
+ *
+ * @author Alistair A. Israel
+ */
+public final class LeakGuardTest {
+
+    private static final Statement NOOP = new Statement() {
+        @Override
+        public void evaluate() {
+            // noop
+        }
+    };
+
+    private final CountDownLatch stop = new CountDownLatch(1);
+
+    /**
+     * Starts a thread on setUp(), and only stops it if told to.
+     */
+    private final class ThreadStartingFixture extends TestFixture {
+
+        private final boolean stopOnTearDown;
+
+        /**
+         * @param stopOnTearDown
+         *        whether to stop the thread on tearDown()
+         */
+        ThreadStartingFixture(final boolean stopOnTearDown) {
+            this.stopOnTearDown = stopOnTearDown;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see junit.rules.TestFixture#setUp()
+         */
+        @Override
+        protected void setUp() throws Throwable {
+            final Thread thread = new Thread("leaky") {
+                @Override
+                public void run() {
+                    try {
+                        stop.await();
+                    } catch (final InterruptedException e) {
+                        return;
+                    }
+                }
+            };
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see junit.rules.TestFixture#tearDown()
+         */
+        @Override
+        protected void tearDown() throws Throwable {
+            if (stopOnTearDown) {
+                stop.countDown();
+            }
+        }
+    }
+
+    /**
+     * @param guard
+     *        the {@link LeakGuard} to evaluate
+     * @throws Throwable
+     *         on exception
+     */
+    private static void evaluate(final LeakGuard guard) throws Throwable {
+        guard.apply(NOOP, Description.createTestDescription(LeakGuardTest.class, "test")).evaluate();
+    }
+
+    /**
+     * A fixture that leaves a thread running should be caught.
+     *
+     * @throws Throwable
+     *         should never happen
+     */
+    @Test
+    public void testLeakedThreadIsReported() throws Throwable {
+        final LeakGuard guard = new LeakGuard(new ThreadStartingFixture(false)).setFailOnLeak(true).setSettleTime(100,
+                TimeUnit.MILLISECONDS);
+        try {
+            evaluate(guard);
+            fail("Expected the leaked thread to be reported");
+        } catch (final AssertionError e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("[leaky]"));
+        } finally {
+            stop.countDown();
+        }
+        assertEquals(Integer.valueOf(1), LeakGuard.getReport().get(ThreadStartingFixture.class.getName()));
+    }
+
+    /**
+     * A fixture that cleans up after itself should pass.
+     *
+     * @throws Throwable
+     *         should never happen
+     */
+    @Test
+    public void testCleanFixturePasses() throws Throwable {
+        evaluate(new LeakGuard(new ThreadStartingFixture(true)).setFailOnLeak(true));
+    }
+
+    /**
+     * On Linux, a new server socket should show up as a new file descriptor and listening port.
+     *
+     * @throws Exception
+     *         should never happen
+     */
+    @Test
+    public void testSnapshotSeesServerSocket() throws Exception {
+        assumeTrue(new File("/proc/net/tcp").exists());
+        final ResourceSnapshot before = ResourceSnapshot.take();
+        final ServerSocket socket = new ServerSocket(0);
+        try {
+            final List<String> growth = ResourceSnapshot.take().growthSince(before, 0);
+            assertTrue(growth.toString(), growth.toString().contains(String.valueOf(socket.getLocalPort())));
+        } finally {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.junit.internal.builders.AllDefaultPossibilitiesBuilder;
+import org.junit.runner.Result;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.Suite.SuiteClasses;
+
+/**
+ * JUnit test for {@link ParallelSuite}.
+ *
+ * @author Alistair A. Israel
+ */
+public final class ParallelSuiteTest {
+
+    private static final CountDownLatch INDEPENDENT = new CountDownLatch(2);
+
+    private static final AtomicInteger SHARING = new AtomicInteger();
+
+    private static final AtomicInteger MAX_SHARING = new AtomicInteger();
+
+    private static final Set<Thread> SHARING_THREADS = Collections.synchronizedSet(new HashSet<Thread>());
+
+    /**
+     * Waits for {@link Independent2}.
+     */
+    public static final class Independent1 {
+
+        /**
+         * @throws InterruptedException
+         *         should never happen
+         */
+        @Test
+        public void test() throws InterruptedException {
+            INDEPENDENT.countDown();
+            assertTrue(INDEPENDENT.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * Waits for {@link Independent1}.
+     */
+    public static final class Independent2 {
+
+        /**
+         * @throws InterruptedException
+         *         should never happen
+         */
+        @Test
+        public void test() throws InterruptedException {
+            INDEPENDENT.countDown();
+            assertTrue(INDEPENDENT.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * Base class for tests that share a resource.
+     */
+    @ExclusiveResources("shared")
+    public abstract static class Sharing {
+
+        /**
+         * @throws InterruptedException
+         *         should never happen
+         */
+        @Test
+        public final void test() throws InterruptedException {
+            SHARING_THREADS.add(Thread.currentThread());
+            final int sharing = SHARING.incrementAndGet();
+            if (sharing > MAX_SHARING.get()) {
+                MAX_SHARING.set(sharing);
+            }
+            Thread.sleep(50);
+            SHARING.decrementAndGet();
+        }
+    }
+
+    /**
+     * Uses the shared resource.
+     */
+    public static final class Sharing1 extends Sharing {
+    }
+
+    /**
+     * Uses the shared resource.
+     */
+    public static final class Sharing2 extends Sharing {
+    }
+
+    /**
+     * Uses the shared resource.
+     */
+    public static final class Sharing3 extends Sharing {
+    }
+
+    /**
+     * The suite
+     */
+    @SuiteClasses({ Sharing1.class, Independent1.class, Sharing2.class, Independent2.class })
+    public static final class Classes {
+    }
+
+    /**
+     * Classes that all wait for the same resource
+     */
+    @SuiteClasses({ Sharing1.class, Sharing2.class, Sharing3.class })
+    public static final class Waiting {
+    }
+
+    /**
+     * Independent classes should run concurrently, those sharing a resource one at a time.
+     *
+     * @throws Throwable
+     *         should never happen
+     */
+    @Test
+    public void testOnlyConflictingClassesAreSerialized() throws Throwable {
+        System.setProperty(ParallelSuite.THREADS_PROPERTY, "4");
+        final ParallelSuite suite;
+        try {
+            suite = new ParallelSuite(Classes.class, new AllDefaultPossibilitiesBuilder(true));
+        } finally {
+            System.clearProperty(ParallelSuite.THREADS_PROPERTY);
+        }
+        final Result result = new Result();
+        final RunNotifier notifier = new RunNotifier();
+        notifier.addListener(result.createListener());
+        suite.run(notifier);
+
+        assertEquals(4, result.getRunCount());
+        assertEquals(0, result.getFailureCount());
+        assertEquals(1, MAX_SHARING.get());
+    }
+
+    /**
+     * Classes waiting for a resource shouldn't hold threads, so no more threads should be used than allowed.
+     *
+     * @throws Throwable
+     *         should never happen
+     */
+    @Test
+    public void testWaitingClassesHoldNoThreads() throws Throwable {
+        System.setProperty(ParallelSuite.THREADS_PROPERTY, "2");
+        final ParallelSuite suite;
+        try {
+            suite = new ParallelSuite(Waiting.class, new AllDefaultPossibilitiesBuilder(true));
+        } finally {
+            System.clearProperty(ParallelSuite.THREADS_PROPERTY);
+        }
+        SHARING_THREADS.clear();
+        final Result result = new Result();
+        final RunNotifier notifier = new RunNotifier();
+        notifier.addListener(result.createListener());
+        suite.run(notifier);
+
+        assertEquals(3, result.getRunCount());
+        assertEquals(0, result.getFailureCount());
+        assertEquals(1, MAX_SHARING.get());
+        assertTrue(SHARING_THREADS.size() <= 2);
+    }
+}
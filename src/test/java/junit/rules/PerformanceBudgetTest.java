@@ -0,0 +1,131 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.junit.runner.Result;
+
+/**
+ * JUnit test for {@link PerformanceBudget}.
+ *
+ * @author Alistair A. Israel
+ */
+public final class PerformanceBudgetTest {
+
+    /**
+     * Tests with budgets.
+     */
+    public static final class Budgeted {
+
+        /**
+         * The rule under test
+         */
+        @Rule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public final PerformanceBudget budget = new PerformanceBudget();
+
+        /**
+         * Keeps allocations reachable
+         */
+        private final List<byte[]> retained = new ArrayList<byte[]>();
+
+        /**
+         * Well within budget
+         */
+        @Test
+        @MaxDuration(10000)
+        public void fast() {
+            retained.clear();
+        }
+
+        /**
+         * @throws InterruptedException
+         *         should never happen
+         */
+        @Test
+        @MaxDuration(10)
+        public void slow() throws InterruptedException {
+            Thread.sleep(200);
+        }
+
+        /**
+         * Allocates 8 MB
+         */
+        @Test
+        @MaxAllocatedBytes(1024 * 1024)
+        public void greedy() {
+            for (int i = 0; i < 8; ++i) {
+                retained.add(new byte[1024 * 1024]);
+            }
+        }
+    }
+
+    /**
+     * @param methodName
+     *        the test method to run
+     * @return the {@link Result}
+     */
+    private static Result run(final String methodName) {
+        return new JUnitCore().run(Request.method(Budgeted.class, methodName));
+    }
+
+    /**
+     * A test within budget should pass.
+     */
+    @Test
+    public void testWithinBudget() {
+        assertEquals(0, run("fast").getFailureCount());
+    }
+
+    /**
+     * A test that takes too long should fail.
+     */
+    @Test
+    public void testOverDurationBudget() {
+        final Result result = run("slow");
+        assertEquals(1, result.getFailureCount());
+        assertTrue(result.getFailures().get(0).getMessage().contains("budget is 10 ms"));
+    }
+
+    /**
+     * The duration budget can be overridden by system property.
+     */
+    @Test
+    public void testOverriddenDurationBudget() {
+        final String key = PerformanceBudget.PREFIX + Budgeted.class.getName() + ".slow"
+                + PerformanceBudget.MAX_DURATION_SUFFIX;
+        System.setProperty(key, "10000");
+        try {
+            assertEquals(0, run("slow").getFailureCount());
+        } finally {
+            System.clearProperty(key);
+        }
+    }
+
+    /**
+     * A test that allocates too much should fail, where allocation can be measured.
+     */
+    @Test
+    public void testOverAllocationBudget() {
+        final Result result = run("greedy");
+        if (ThreadMetrics.currentThreadAllocatedBytes() >= 0) {
+            assertEquals(1, result.getFailureCount());
+            assertTrue(result.getFailures().get(0).getMessage().contains("budget is 1048576 bytes"));
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runners.model.Statement;
+
+/**
+ * JUnit test for {@link TestFixture}.
+ *
+ * @author Alistair A. Israel
+ */
+public final class TestFixtureTest {
+
+    /**
+     * A {@link TestFixture} that counts how often each lifecycle method is called.
+     */
+    public static final class CountingFixture extends TestFixture {
+
+        private int setUps;
+
+        private int resets;
+
+        private int tearDowns;
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see junit.rules.TestFixture#setUp()
+         */
+        @Override
+        protected void setUp() throws Throwable {
+            ++setUps;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see junit.rules.TestFixture#reset()
+         */
+        @Override
+        protected void reset() throws Throwable {
+            ++resets;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see junit.rules.TestFixture#tearDown()
+         */
+        @Override
+        protected void tearDown() throws Throwable {
+            ++tearDowns;
+        }
+
+        /**
+         * @return {@code true} if set up and not yet torn down
+         */
+        public boolean isActive() {
+            return setUps > tearDowns;
+        }
+    }
+
+    /**
+     * Uses {@link CountingFixture} as a {@link ClassRule}.
+     */
+    public static final class UsesClassFixture {
+
+        /**
+         * The class-level fixture
+         */
+        @ClassRule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public static final CountingFixture FIXTURE = new CountingFixture();
+
+        /**
+         * Resets the fixture after each test
+         */
+        @Rule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public final TestRule reset = FIXTURE.resetAfterEachTest();
+
+        /**
+         * First test
+         */
+        @Test
+        public void first() {
+            assertTrue(FIXTURE.isActive());
+            assertTrue(FIXTURE.isClassScoped());
+        }
+
+        /**
+         * Second test
+         */
+        @Test
+        public void second() {
+            assertTrue(FIXTURE.isActive());
+        }
+
+        /**
+         * Third test
+         */
+        @Test
+        public void third() {
+            assertTrue(FIXTURE.isActive());
+        }
+    }
+
+    /**
+     * Uses {@link CountingFixture} as a plain {@link Rule}.
+     */
+    public static final class UsesMethodFixture {
+
+        /**
+         * The method-level fixture
+         */
+        @Rule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public final CountingFixture fixture = new CountingFixture();
+
+        /**
+         * First test
+         */
+        @Test
+        public void first() {
+            assertTrue(fixture.isActive());
+            assertFalse(fixture.isClassScoped());
+        }
+    }
+
+    /**
+     * A class-level fixture should be set up and torn down only once, and reset after each test.
+     */
+    @Test
+    public void testClassScopedFixture() {
+        final Result result = JUnitCore.runClasses(UsesClassFixture.class);
+        assertEquals(0, result.getFailureCount());
+        assertEquals(3, result.getRunCount());
+        assertEquals(1, UsesClassFixture.FIXTURE.setUps);
+        assertEquals(3, UsesClassFixture.FIXTURE.resets);
+        assertEquals(1, UsesClassFixture.FIXTURE.tearDowns);
+    }
+
+    /**
+     * A method-level fixture should behave as before.
+     */
+    @Test
+    public void testMethodScopedFixture() {
+        final Result result = JUnitCore.runClasses(UsesMethodFixture.class);
+        assertEquals(0, result.getFailureCount());
+    }
+
+    /**
+     * A lazy fixture should only be set up on first use, and only torn down if it was set up.
+     *
+     * @throws Throwable
+     *         should never happen
+     */
+    @Test
+    public void testLazyFixture() throws Throwable {
+        final CountingFixture fixture = new CountingFixture();
+        fixture.setLazy(true);
+        final Description description = Description.createTestDescription(TestFixtureTest.class, "test");
+
+        fixture.apply(new Statement() {
+            @Override
+            public void evaluate() {
+                assertFalse(fixture.isActive());
+            }
+        }, description).evaluate();
+        assertEquals(0, fixture.setUps);
+        assertEquals(0, fixture.tearDowns);
+
+        fixture.apply(new Statement() {
+            @Override
+            public void evaluate() {
+                fixture.activate();
+                fixture.activate();
+                assertTrue(fixture.isActive());
+            }
+        }, description).evaluate();
+        assertEquals(1, fixture.setUps);
+        assertEquals(1, fixture.tearDowns);
+    }
+}
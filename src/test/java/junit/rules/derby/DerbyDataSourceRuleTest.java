@@ -8,15 +8,28 @@
  */
 package junit.rules.derby;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.sql.Connection;
 import java.sql.Date;
+import java.sql.DriverManager;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import junit.rules.jdbc.support.ConnectionPool;
+
+import org.junit.ClassRule;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
 
 /**
  * JUnit test for {@link DerbyDataSourceRule}.
@@ -25,6 +38,8 @@ import org.junit.Test;
  */
 public final class DerbyDataSourceRuleTest {
 
+    private static final AtomicInteger TEMPLATES_CREATED = new AtomicInteger();
+
     // CHECKSTYLE:OFF
     @Rule
     public final DerbyDataSourceRule derby = new DerbyDataSourceRule("test");
@@ -52,4 +67,323 @@ public final class DerbyDataSourceRuleTest {
             conn.close();
         }
     }
+
+    /**
+     * {@link DerbyDataSourceRule#restore()} should put back the table contents at {@link DerbyDataSourceRule#snapshot()}.
+     *
+     * @throws Exception
+     *         should never happen
+     */
+    @Test
+    public void testSnapshotAndRestore() throws Exception {
+        derby.execute("CREATE TABLE parent (id INT PRIMARY KEY)");
+        derby.execute("CREATE TABLE child (id INT PRIMARY KEY, parent_id INT REFERENCES parent(id))");
+        try {
+            derby.execute("INSERT INTO parent VALUES (1)");
+            derby.execute("INSERT INTO child VALUES (1, 1)");
+            derby.snapshot();
+
+            derby.execute("INSERT INTO parent VALUES (2)");
+            derby.execute("INSERT INTO child VALUES (2, 2)");
+            derby.execute("DELETE FROM child WHERE id = 1");
+            derby.restore();
+
+            assertEquals(1, derby.count("parent"));
+            assertEquals(1, derby.count("child"));
+        } finally {
+            derby.execute("DROP TABLE child");
+            derby.execute("DROP TABLE parent");
+        }
+    }
+
+    /**
+     * Closed connections should go back to the pool, reset.
+     *
+     * @throws Exception
+     *         should never happen
+     */
+    @Test
+    public void testConnectionPool() throws Exception {
+        final ConnectionPool pool = derby.getConnectionPool();
+        final long opened = pool.getOpenedCount();
+        final Connection first = derby.getConnection();
+        final Connection second = derby.getConnection();
+        assertEquals(2, pool.getActiveCount());
+        first.setAutoCommit(false);
+        first.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+        derby.execute("CREATE SCHEMA pooled");
+        final Statement statement = first.createStatement();
+        try {
+            statement.execute("SET SCHEMA pooled");
+        } finally {
+            statement.close();
+        }
+        first.close();
+        second.close();
+        assertTrue(first.isClosed());
+        try {
+            first.createStatement();
+            fail("Expected SQLException");
+        } catch (final SQLException e) {
+            assertNotNull(e.getMessage());
+        }
+
+        for (int i = 0; i < 100; ++i) {
+            final Connection conn = derby.getConnection();
+            try {
+                assertTrue(conn.getAutoCommit());
+                assertEquals(Connection.TRANSACTION_READ_COMMITTED, conn.getTransactionIsolation());
+                final ResultSet rs = conn.createStatement().executeQuery("VALUES CURRENT SCHEMA");
+                rs.next();
+                assertEquals("APP", rs.getString(1));
+                rs.close();
+            } finally {
+                conn.close();
+            }
+        }
+        // execute() needed a third while the other two were in use
+        assertEquals(opened + 3, pool.getOpenedCount());
+        assertEquals(0, pool.getActiveCount());
+        assertFalse(pool.getIdleCount() == 0);
+        derby.execute("DROP SCHEMA pooled RESTRICT");
+    }
+
+    /**
+     * Statements left open should be closed when their connection goes back to the pool, and back-references should
+     * lead to the pooled connection, not the physical one.
+     *
+     * @throws Exception
+     *         should never happen
+     */
+    @Test
+    public void testPooledStatements() throws Exception {
+        final ConnectionPool pool = derby.getConnectionPool();
+        final Connection conn = derby.getConnection();
+        final Statement statement = conn.createStatement();
+        final ResultSet rs = statement.executeQuery("VALUES 1");
+        assertSame(conn, statement.getConnection());
+        assertSame(statement, rs.getStatement());
+        assertSame(conn, conn.getMetaData().getConnection());
+        assertSame(conn, conn.prepareStatement("VALUES 2").getConnection());
+
+        statement.getConnection().close();
+        assertTrue(conn.isClosed());
+        assertTrue(statement.isClosed());
+        assertEquals(0, pool.getActiveCount());
+        assertFalse(pool.getIdleCount() == 0);
+    }
+
+    /**
+     * A template that fails to be created should be dropped, so that the next attempt starts afresh.
+     *
+     * @throws Exception
+     *         should never happen
+     */
+    @Test
+    public void testFailedTemplateIsDropped() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        final DatabaseTemplate template = new DatabaseTemplate() {
+            @Override
+            public void create(final Connection connection) throws Exception {
+                final Statement statement = connection.createStatement();
+                try {
+                    statement.execute("CREATE TABLE flaky (id INT)");
+                } finally {
+                    statement.close();
+                }
+                if (attempts.incrementAndGet() == 1) {
+                    throw new IllegalStateException("first attempt fails");
+                }
+            }
+        };
+        try {
+            DerbyTemplates.backupOf("flaky", template);
+            fail("Expected IllegalStateException");
+        } catch (final IllegalStateException e) {
+            assertEquals("first attempt fails", e.getMessage());
+        }
+        assertNotNull(DerbyTemplates.backupOf("flaky", template));
+        assertEquals(2, attempts.get());
+    }
+
+    /**
+     * Uses a lazy, class-scoped rule.
+     */
+    public static final class LazyClassScoped {
+
+        /**
+         * Only set up when first used, then snapshot
+         */
+        @ClassRule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public static final DerbyDataSourceRule DERBY = new DerbyDataSourceRule("lazy");
+
+        static {
+            DERBY.setLazy(true);
+        }
+
+        /**
+         * Activates the rule
+         */
+        @Test
+        public void uses() {
+            DERBY.execute("CREATE TABLE lazy (id INT)");
+            assertEquals(0, DERBY.count("lazy"));
+        }
+    }
+
+    /**
+     * A lazy class-scoped rule should be set up, and snapshot, only once on first use.
+     */
+    @Test
+    public void testLazyClassScoped() {
+        final Result result = JUnitCore.runClasses(LazyClassScoped.class);
+        assertEquals(0, result.getFailureCount());
+        assertEquals(1, result.getRunCount());
+    }
+
+    /**
+     * Leaves a table behind in the shared database.
+     */
+    public static final class CreatesShared {
+
+        /**
+         * On the shared database
+         */
+        @ClassRule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public static final DerbyDataSourceRule DERBY = new DerbyDataSourceRule("shared");
+
+        /**
+         * Creates a table, which outlives the rule
+         */
+        @Test
+        public void creates() {
+            DERBY.execute("CREATE TABLE w (id INT)");
+        }
+    }
+
+    /**
+     * Snapshots the shared database.
+     */
+    public static final class UsesShared {
+
+        /**
+         * On the shared database
+         */
+        @ClassRule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public static final DerbyDataSourceRule DERBY = new DerbyDataSourceRule("shared");
+
+        /**
+         * Uses the table
+         */
+        @Test
+        public void uses() {
+            DERBY.execute("INSERT INTO w VALUES (1)");
+            assertEquals(1, DERBY.count("w"));
+        }
+    }
+
+    /**
+     * Snapshots the shared database, again.
+     */
+    public static final class AlsoUsesShared {
+
+        /**
+         * On the shared database
+         */
+        @ClassRule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public static final DerbyDataSourceRule DERBY = new DerbyDataSourceRule("shared");
+
+        /**
+         * Empties the table
+         */
+        @Test
+        public void uses() {
+            DERBY.execute("DELETE FROM w");
+            assertEquals(0, DERBY.count("w"));
+        }
+    }
+
+    /**
+     * Class-scoped rules on the same database should each keep their own snapshot, and drop it when done.
+     *
+     * @throws SQLException
+     *         should never happen
+     */
+    @Test
+    public void testClassScopedRulesShareDatabase() throws SQLException {
+        final Result result = JUnitCore.runClasses(CreatesShared.class, UsesShared.class, AlsoUsesShared.class);
+        assertEquals(0, result.getFailureCount());
+        final Connection conn = DriverManager.getConnection("jdbc:derby:memory:shared");
+        try {
+            final ResultSet rs = conn.getMetaData().getTables(null, DerbyTableSnapshot.SCHEMA + "%", null, null);
+            try {
+                assertFalse(rs.next());
+            } finally {
+                rs.close();
+            }
+        } finally {
+            conn.close();
+        }
+    }
+
+    /**
+     * Tests that each start with a copy of the same template database.
+     */
+    public static final class WithTemplate {
+
+        /**
+         * The {@link DerbyDataSourceRule}, created from a template
+         */
+        @Rule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public final DerbyDataSourceRule derby = new DerbyDataSourceRule("cloned").setTemplate("reference",
+                new DatabaseTemplate() {
+                    @Override
+                    public void create(final Connection connection) throws Exception {
+                        TEMPLATES_CREATED.incrementAndGet();
+                        final Statement statement = connection.createStatement();
+                        try {
+                            statement.execute("CREATE TABLE country (code CHAR(2) PRIMARY KEY)");
+                            statement.execute("INSERT INTO country VALUES ('PH'), ('US')");
+                        } finally {
+                            statement.close();
+                        }
+                    }
+                });
+
+        /**
+         * Changes the database, which the next test shouldn't see
+         */
+        @Test
+        public void first() {
+            assertEquals(2, derby.count("country"));
+            derby.execute("INSERT INTO country VALUES ('JP')");
+            assertEquals(3, derby.count("country"));
+        }
+
+        /**
+         * Changes the database, which the next test shouldn't see
+         */
+        @Test
+        public void second() {
+            assertEquals(2, derby.count("country"));
+            derby.execute("DELETE FROM country");
+            assertEquals(0, derby.count("country"));
+        }
+    }
+
+    /**
+     * The template should only be created once, and each test should get a fresh copy of it.
+     */
+    @Test
+    public void testTemplate() {
+        final Result result = JUnitCore.runClasses(WithTemplate.class, WithTemplate.class);
+        assertEquals(0, result.getFailureCount());
+        assertEquals(4, result.getRunCount());
+        assertEquals(1, TEMPLATES_CREATED.get());
+    }
 }
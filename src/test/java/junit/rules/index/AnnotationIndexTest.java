@@ -0,0 +1,139 @@
+/**
+ * junit-rules: JUnit Rules Library
+ *
+ * Copyright (c) 2009-2011 by Alistair A. Israel.
+ * This software is made available under the terms of the MIT License.
+ *
+ * Created Oct 14, 2026
+ */
+package junit.rules.index;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import junit.rules.Throws;
+import junit.rules.dbunit.Fixtures;
+
+import org.junit.Test;
+
+/**
+ * JUnit test for {@link AnnotationIndex} and {@link AnnotationIndexProcessor}.
+ *
+ * @author Alistair A. Israel
+ */
+public final class AnnotationIndexTest {
+
+    /**
+     * A base test class.
+     */
+    public static class Base {
+
+        /**
+         * Non-public, and inherited
+         */
+        @Throws(IllegalStateException.class)
+        void inherited() {
+            throw new IllegalStateException();
+        }
+
+        /**
+         * Has fixtures
+         */
+        @Fixtures({ "base.xml", "more.xml" })
+        public void fixtures() {
+            // noop
+        }
+    }
+
+    /**
+     * A sub class.
+     */
+    @Fixtures("sub.xml")
+    public static final class Sub extends Base {
+
+        @PersistenceContext
+        private EntityManager entityManager;
+
+        /**
+         * Post construct
+         */
+        @PostConstruct
+        void init() {
+            entityManager = null;
+        }
+    }
+
+    /**
+     * Overrides a method without its annotation.
+     */
+    public static final class Overriding extends Base {
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see junit.rules.index.AnnotationIndexTest.Base#inherited()
+         */
+        @Override
+        void inherited() {
+            // noop
+        }
+    }
+
+    /**
+     * The compile time index should have been written, and should agree with reflection.
+     */
+    @Test
+    public void testIndexMatchesReflection() {
+        final AnnotationIndex indexed = AnnotationIndex.of(Sub.class);
+        assertTrue(indexed.isIndexed());
+        for (final AnnotationIndex index : asList(indexed, AnnotationIndex.reflect(Sub.class))) {
+            assertEquals(asList("sub.xml"), index.getFixtures());
+            assertEquals(asList("base.xml", "more.xml"), index.getFixtures("fixtures"));
+            assertEquals(IllegalStateException.class, index.getThrows("inherited"));
+            assertNull(index.getThrows("init"));
+            assertEquals("entityManager", index.getPersistenceContextFields().get(0).getName());
+            assertEquals("init", index.getPostConstructMethods().get(0).getName());
+        }
+    }
+
+    /**
+     * An overriding method without an annotation shouldn't inherit its superclass method's.
+     */
+    @Test
+    public void testOverridingMethodHidesAnnotation() {
+        assertNull(AnnotationIndex.of(Overriding.class).getThrows("inherited"));
+        assertNull(AnnotationIndex.reflect(Overriding.class).getThrows("inherited"));
+        assertEquals(asList("base.xml", "more.xml"), AnnotationIndex.of(Overriding.class).getFixtures("fixtures"));
+    }
+
+    /**
+     * An index much older than its class file should be considered stale.
+     *
+     * @throws Exception
+     *         should never happen
+     */
+    @Test
+    public void testStaleIndex() throws Exception {
+        final File index = File.createTempFile("index", AnnotationIndex.SUFFIX);
+        final File classFile = File.createTempFile("class", ".class");
+        try {
+            final long compiled = index.lastModified();
+            assertTrue(classFile.setLastModified(compiled + 1000));
+            assertTrue(IndexFiles.isCurrent(index.toURI().toURL(), classFile.toURI().toURL()));
+            assertTrue(classFile.setLastModified(compiled + 2 * AnnotationIndex.STALE_AFTER_MILLIS));
+            assertFalse(IndexFiles.isCurrent(index.toURI().toURL(), classFile.toURI().toURL()));
+        } finally {
+            assertTrue(index.delete());
+            assertTrue(classFile.delete());
+        }
+    }
+}
@@ -8,22 +8,61 @@
  */
 package junit.rules.jndi;
 
+import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.naming.Binding;
+import javax.naming.Context;
+import javax.naming.ContextNotEmptyException;
 import javax.naming.InitialContext;
+import javax.naming.Name;
+import javax.naming.NameAlreadyBoundException;
+import javax.naming.NameNotFoundException;
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+import javax.naming.Reference;
+import javax.naming.spi.ObjectFactory;
 import javax.sql.DataSource;
 
+import junit.rules.Benchmark;
+import junit.rules.BenchmarkRule;
+import junit.rules.Concurrent;
+import junit.rules.ConcurrentRule;
+
 import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.runner.Description;
 import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
 import org.junit.runner.Result;
+import org.junit.runners.model.Statement;
 
 /**
  * JUnit test for {@link StubJndiContext}.
@@ -32,6 +71,8 @@ import org.junit.runner.Result;
  */
 public final class StubJndiContextTest {
 
+    private static final AtomicInteger BOUND = new AtomicInteger();
+
     /**
      * Test using {@link StubJndiContext}
      */
@@ -75,6 +116,410 @@ public final class StubJndiContextTest {
         }
     }
 
+    /**
+     * Test using subcontexts and compound names
+     */
+    public static final class TestUsingSubcontexts {
+
+        /**
+         * The {@link StubJndiContext} rule
+         */
+        @Rule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public StubJndiContext stubJndiContext = new StubJndiContext();
+
+        /**
+         * @throws Exception
+         *         should never happen
+         */
+        @Test
+        public void testSubcontexts() throws Exception {
+            stubJndiContext.bind("java:comp/env/jdbc/dataSource", "dataSource");
+            stubJndiContext.bind("java:comp/env/jdbc/otherDataSource", "otherDataSource");
+            final InitialContext ic = new InitialContext();
+            assertEquals("dataSource", ic.lookup("java:comp/env/jdbc/dataSource"));
+
+            final Context env = (Context) ic.lookup("java:comp/env");
+            assertEquals("java:comp/env", env.getNameInNamespace());
+            assertEquals("dataSource", env.lookup("jdbc/dataSource"));
+            final Name name = env.getNameParser("").parse("jdbc/otherDataSource");
+            assertEquals(2, name.size());
+            assertEquals("otherDataSource", env.lookup(name));
+
+            final Context mail = env.createSubcontext("mail");
+            mail.bind("session", "session");
+            assertEquals("session", ic.lookup("java:comp/env/mail/session"));
+            try {
+                env.destroySubcontext("mail");
+                fail("Expected ContextNotEmptyException");
+            } catch (final ContextNotEmptyException e) {
+                assertNotNull(e.getMessage());
+            }
+            mail.unbind("session");
+            env.destroySubcontext("mail");
+            try {
+                ic.lookup("java:comp/env/mail");
+                fail("Expected NameNotFoundException");
+            } catch (final NameNotFoundException e) {
+                assertNotNull(e.getMessage());
+            }
+
+            env.rename("jdbc/otherDataSource", "jdbc/renamed");
+            assertEquals("otherDataSource", ic.lookup("java:comp/env/jdbc/renamed"));
+        }
+
+        /**
+         * Binding {@code null} should bind {@code null}, not unbind.
+         *
+         * @throws Exception
+         *         should never happen
+         */
+        @Test
+        public void testNullBindings() throws Exception {
+            // so that null bindings get logged, too
+            final Logger logger = Logger.getLogger(StubJndiContext.class.getCanonicalName());
+            final Level level = logger.getLevel();
+            logger.setLevel(Level.FINEST);
+            try {
+                stubJndiContext.bind("jdbc/null", null);
+                final InitialContext ic = new InitialContext();
+                assertNull(ic.lookup("jdbc/null"));
+                try {
+                    ic.bind("jdbc/null", "bound");
+                    fail("Expected NameAlreadyBoundException");
+                } catch (final NameAlreadyBoundException e) {
+                    assertNotNull(e.getMessage());
+                }
+                ic.rebind("jdbc/other", "other");
+                ic.rebind("jdbc/other", null);
+                assertNull(ic.lookup("jdbc/other"));
+                assertEquals(2, Collections.list(ic.list("jdbc")).size());
+            } finally {
+                logger.setLevel(level);
+            }
+        }
+
+        /**
+         * @throws Exception
+         *         should never happen
+         */
+        @Test
+        public void testListSnapshot() throws Exception {
+            stubJndiContext.bind("a/one", "1");
+            stubJndiContext.bind("a/two", "2");
+            stubJndiContext.bind("a/b/three", "3");
+            final InitialContext ic = new InitialContext();
+            final NamingEnumeration<Binding> bindings = ic.listBindings("a");
+            // not seen by the enumeration
+            stubJndiContext.bind("a/four", "4");
+            final Set<String> names = new TreeSet<String>();
+            while (bindings.hasMore()) {
+                final Binding binding = bindings.next();
+                names.add(binding.getName());
+                if ("b".equals(binding.getName())) {
+                    assertTrue(binding.getObject() instanceof Context);
+                    assertEquals("3", ((Context) binding.getObject()).lookup("three"));
+                }
+            }
+            assertEquals(new TreeSet<String>(asList("b", "one", "two")), names);
+            assertTrue(ic.list("a").hasMore());
+        }
+
+        /**
+         * @throws Exception
+         *         should never happen
+         */
+        @Test
+        public void testLazyBindings() throws Exception {
+            final AtomicInteger created = new AtomicInteger();
+            final Callable<String> factory = new Callable<String>() {
+                @Override
+                public String call() {
+                    return "dataSource" + created.incrementAndGet();
+                }
+            };
+            stubJndiContext.bindLazily("jdbc/lazy", factory);
+            stubJndiContext.bindPrototype("jdbc/prototype", factory);
+            stubJndiContext.bind("jdbc/reference", new Reference(String.class.getName(), ReferenceFactory.class
+                    .getName(), null));
+            final InitialContext ic = new InitialContext();
+            assertEquals(3, Collections.list(ic.list("jdbc")).size());
+            assertEquals(0, created.get());
+
+            assertEquals("dataSource1", ic.lookup("jdbc/lazy"));
+            assertEquals("dataSource1", ic.lookup("jdbc/lazy"));
+            assertEquals("dataSource2", ic.lookup("jdbc/prototype"));
+            assertEquals("dataSource3", ic.lookup("jdbc/prototype"));
+            assertEquals("referenced", ic.lookup("jdbc/reference"));
+        }
+
+        /**
+         * @throws Exception
+         *         should never happen
+         */
+        @Test
+        public void testLookupMetrics() throws Exception {
+            stubJndiContext.bind("jdbc/dataSource", "dataSource");
+            final InitialContext ic = new InitialContext();
+            for (int i = 0; i < 5; ++i) {
+                assertEquals("dataSource", ic.lookup("jdbc/dataSource"));
+            }
+            try {
+                ic.lookup("jdbc/missing");
+                fail("Should have thrown NameNotFoundException");
+            } catch (final NameNotFoundException e) {
+                // expected
+            }
+            final Context jdbc = (Context) ic.lookup("jdbc");
+            jdbc.lookup("dataSource");
+
+            final LookupMetrics metrics = stubJndiContext.getLookupMetrics();
+            assertEquals(6, metrics.getLookupCount("jdbc/dataSource"));
+            assertEquals(Long.valueOf(1), metrics.getMissCounts().get("jdbc/missing"));
+            assertEquals(8, metrics.getTotalLookups());
+            assertEquals(8, metrics.getLatency().getTotalCount());
+            assertTrue(metrics.getCallers("jdbc/dataSource").containsKey(TestUsingSubcontexts.class.getName()));
+            assertTrue(metrics.toReport().contains("6 x \"jdbc/dataSource\""));
+        }
+
+        /**
+         * @throws Exception
+         *         should never happen
+         */
+        @Test
+        public void testEnvironmentCopyOnWrite() throws Exception {
+            stubJndiContext.bind("jdbc/dataSource", "dataSource");
+            final InitialContext ic = new InitialContext();
+            ic.addToEnvironment("a", "1");
+            assertFalse(new InitialContext().getEnvironment().containsKey("a"));
+
+            final Context jdbc = (Context) ic.lookup("jdbc");
+            assertEquals("1", jdbc.getEnvironment().get("a"));
+            jdbc.addToEnvironment("b", "2");
+            assertFalse(ic.getEnvironment().containsKey("b"));
+            assertEquals("1", jdbc.removeFromEnvironment("a"));
+            assertEquals("1", ic.getEnvironment().get("a"));
+        }
+
+        /**
+         * @throws Exception
+         *         should never happen
+         */
+        @Test
+        public void testBindAll() throws Exception {
+            stubJndiContext.bind("java:comp/env/existing", "existing");
+            stubJndiContext.bindAll("jndi/bindings.properties");
+            final Context env = (Context) new InitialContext().lookup("java:comp/env");
+            assertEquals("existing", env.lookup("existing"));
+            assertEquals(Integer.valueOf(3), env.lookup("maxRetries"));
+            assertEquals(Long.valueOf(30000), env.lookup("timeoutMillis"));
+            assertEquals(Double.valueOf(0.5), env.lookup("ratio"));
+            assertEquals(Boolean.TRUE, env.lookup("enabled"));
+            assertEquals("Hello, world!", env.lookup("greeting"));
+            assertEquals("http://localhost:8080/", env.lookup("url"));
+            assertEquals("int:3", env.lookup("literal"));
+            assertEquals("referenced", env.lookup("referenced"));
+            final DataSource appDS = (DataSource) env.lookup("jdbc/appDS");
+            assertTrue(appDS == env.lookup("jdbc/appDS"));
+            appDS.getConnection().close();
+            assertTrue(env.lookup("jdbc/urlDS") instanceof DataSource);
+
+            stubJndiContext.bindAll("jndi/bindings.xml");
+            assertEquals(Integer.valueOf(5), env.lookup("maxRetries"));
+            assertEquals("localhost", env.lookup("mail/host"));
+            try {
+                stubJndiContext.bindAll("jndi/missing.properties");
+                fail("Expected IllegalArgumentException");
+            } catch (final IllegalArgumentException e) {
+                assertTrue(e.getMessage().contains("jndi/missing.properties"));
+            }
+        }
+    }
+
+    /**
+     * Creates an {@link InitialContext}, and does a lookup, per iteration.
+     */
+    public static final class InitialContextBenchmark {
+
+        /**
+         * The {@link StubJndiContext}, set up once so it isn't part of the benchmark
+         */
+        @ClassRule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public static final StubJndiContext STUB_JNDI_CONTEXT = new StubJndiContext();
+
+        /**
+         * The benchmark
+         */
+        @Rule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public final BenchmarkRule benchmark = new BenchmarkRule();
+
+        /**
+         * Binds the looked up name.
+         */
+        @BeforeClass
+        public static void bind() {
+            STUB_JNDI_CONTEXT.bind("java:comp/env/jdbc/dataSource", "dataSource");
+        }
+
+        /**
+         * @throws NamingException
+         *         should never happen
+         */
+        @Test
+        @Benchmark(iterations = 10000, warmUp = 2000)
+        public void newInitialContext() throws NamingException {
+            assertEquals("dataSource", new InitialContext().lookup("java:comp/env/jdbc/dataSource"));
+        }
+    }
+
+    /**
+     * Logs contexts created (and looked up) per second.
+     */
+    @Test
+    public void testInitialContextBenchmark() {
+        final Result result = JUnitCore.runClasses(InitialContextBenchmark.class);
+        assertEquals(0, result.getFailureCount());
+    }
+
+    /**
+     * Creates objects from a {@link Reference}.
+     */
+    public static final class ReferenceFactory implements ObjectFactory {
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see javax.naming.spi.ObjectFactory#getObjectInstance(java.lang.Object, javax.naming.Name,
+         *      javax.naming.Context, java.util.Hashtable)
+         */
+        @Override
+        public Object getObjectInstance(final Object obj, final Name name, final Context nameCtx,
+                final Hashtable<?, ?> environment) {
+            return "referenced";
+        }
+    }
+
+    /**
+     * Subcontexts, compound names and list() should work.
+     */
+    @Test
+    public void testUsingSubcontexts() {
+        final Result result = JUnitCore.runClasses(TestUsingSubcontexts.class);
+        assertEquals(0, result.getFailureCount());
+    }
+
+    /**
+     * Many threads doing lookups, with a few binds, against the same {@link StubJndiContext}.
+     */
+    public static final class ConcurrentLookups {
+
+        /**
+         * The {@link StubJndiContext}, shared by all tests and threads
+         */
+        @ClassRule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public static final StubJndiContext STUB_JNDI_CONTEXT = new StubJndiContext();
+
+        /**
+         * Runs each test on many threads
+         */
+        @Rule
+        // SUPPRESS CHECKSTYLE VisibilityModifier
+        public final ConcurrentRule concurrent = new ConcurrentRule();
+
+        /**
+         * @throws NamingException
+         *         should never happen
+         */
+        @Test
+        @Concurrent(threads = 8, iterations = 500)
+        public void lookups() throws NamingException {
+            final InitialContext ic = new InitialContext();
+            final String name = "thread/" + Thread.currentThread().getId();
+            ic.rebind(name, name);
+            for (int i = 0; i < 10; ++i) {
+                assertEquals(name, ic.lookup(name));
+            }
+        }
+
+        /**
+         * @throws NamingException
+         *         should never happen
+         */
+        @Test
+        @Concurrent(threads = 8)
+        public void bindOnce() throws NamingException {
+            try {
+                new InitialContext().bind("once", Thread.currentThread().getName());
+                BOUND.incrementAndGet();
+            } catch (final NameAlreadyBoundException e) {
+                assertNotNull(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Concurrent lookups should see their own binds, and only one concurrent bind() of the same name should succeed.
+     */
+    @Test
+    public void testConcurrentLookupsAndBinds() {
+        BOUND.set(0);
+        final Result lookups = new JUnitCore().run(Request.method(ConcurrentLookups.class, "lookups"));
+        assertEquals(0, lookups.getFailureCount());
+        final Result bindOnce = new JUnitCore().run(Request.method(ConcurrentLookups.class, "bindOnce"));
+        assertEquals(0, bindOnce.getFailureCount());
+        assertEquals(1, BOUND.get());
+    }
+
+    /**
+     * Two {@link StubJndiContext}s set up at the same time, on different threads, should each see their own bindings.
+     *
+     * @throws Throwable
+     *         should never happen
+     */
+    @Test
+    public void testIsolatedNamespaces() throws Throwable {
+        final CyclicBarrier bothSetUp = new CyclicBarrier(2);
+        final Map<String, Object> seen = new ConcurrentHashMap<String, Object>();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (final String id : asList("first", "second")) {
+            final StubJndiContext stubJndiContext = new StubJndiContext();
+            final Statement test = new Statement() {
+                @Override
+                public void evaluate() throws Throwable {
+                    stubJndiContext.bind("java:comp/env/id", id);
+                    bothSetUp.await();
+                    seen.put(id, new InitialContext().lookup("java:comp/env/id"));
+                }
+            };
+            threads.add(new Thread(id) {
+                @Override
+                public void run() {
+                    try {
+                        stubJndiContext.apply(test, Description.createTestDescription(StubJndiContextTest.class, id))
+                                .evaluate();
+                    } catch (final Throwable t) {
+                        failure.set(t);
+                    }
+                }
+            });
+        }
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        assertEquals("first", seen.get("first"));
+        assertEquals("second", seen.get("second"));
+    }
+
     /**
      *
      */